@@ -22,7 +22,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
-import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.Var;
@@ -32,7 +32,7 @@ import pascal.taie.ir.stmt.Stmt;
  * Implementation of classic live variable analysis.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, PersistentSetFact<Var>> {
 
     public static final String ID = "livevar";
 
@@ -46,28 +46,31 @@ public class LiveVariableAnalysis extends
     }
 
     @Override
-    public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+    public PersistentSetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return new PersistentSetFact<>();
     }
 
     @Override
-    public SetFact<Var> newInitialFact() {
+    public PersistentSetFact<Var> newInitialFact() {
         // TODO - finish me
-        return new SetFact<>();
+        return new PersistentSetFact<>();
     }
 
     @Override
-    public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
+    public void meetInto(PersistentSetFact<Var> fact, PersistentSetFact<Var> target) {
         // TODO - finish me
         target.union(fact);
     }
 
     @Override
-    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+    public boolean transferNode(Stmt stmt, PersistentSetFact<Var> in, PersistentSetFact<Var> out) {
         // TODO - finish me
 
-        SetFact<Var> inCopy = in.copy();
+        // taking a snapshot of persistent fact and setting IN to OUT are
+        // O(1), and comparing against the snapshot only visits the
+        // elements changed since then
+        PersistentSetFact<Var> inCopy = in.copy();
         in.set(out);
 
         stmt.getDef().ifPresent(lValue -> {
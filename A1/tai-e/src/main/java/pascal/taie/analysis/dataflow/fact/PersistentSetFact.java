@@ -0,0 +1,225 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts backed by a persistent
+ * (immutable, structure-sharing) hash trie. It provides the same
+ * operations as {@link SetFact}, but {@link #copy()} and {@link #set}
+ * take O(1) time, and copies share all elements with their original
+ * until either side is updated, where only the path to the updated
+ * element is duplicated.
+ * <p>
+ * As the underlying trie is canonical, {@link #equals(Object)} only
+ * needs to visit the parts of two facts that are not shared. Thus,
+ * a transfer function can take a snapshot of a fact by {@link #copy()}
+ * before updating it, and cheaply compare the result against the snapshot.
+ * <p>
+ * This class does not permit null elements.
+ *
+ * @param <E> type of elements
+ */
+public class PersistentSetFact<E> {
+
+    /**
+     * The current (immutable) elements of this fact, where
+     * each element is mapped to itself.
+     */
+    private PersistentMap<E, E> map;
+
+    /**
+     * Constructs a new empty PersistentSetFact.
+     */
+    public PersistentSetFact() {
+        this.map = PersistentMap.empty();
+    }
+
+    /**
+     * Constructs a new PersistentSetFact with the same elements as
+     * specified fact. This takes O(1) time.
+     */
+    protected PersistentSetFact(PersistentSetFact<E> fact) {
+        this.map = fact.map;
+    }
+
+    /**
+     * @return true if this set contains the specified element, otherwise false.
+     */
+    public boolean contains(E e) {
+        return map.get(e) != null;
+    }
+
+    /**
+     * Adds an element to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean add(E e) {
+        PersistentMap<E, E> oldMap = map;
+        map = map.put(e, e);
+        return map != oldMap;
+    }
+
+    /**
+     * Removes an element from this fact.
+     *
+     * @return true if an element was removed as a result of the call, otherwise false.
+     */
+    public boolean remove(E e) {
+        PersistentMap<E, E> oldMap = map;
+        map = map.remove(e);
+        return map != oldMap;
+    }
+
+    /**
+     * Removes all the elements of this fact that satisfy the given predicate.
+     *
+     * @return true if any elements were removed as a result of the call,
+     * otherwise false.
+     */
+    public boolean removeIf(Predicate<E> filter) {
+        PersistentMap<E, E> oldMap = map;
+        // the trie is immutable, so it is safe to update the field
+        // while iterating over the old one
+        oldMap.forEach((e, v) -> {
+            if (filter.test(e)) {
+                map = map.remove(e);
+            }
+        });
+        return map != oldMap;
+    }
+
+    /**
+     * Unions other fact into this fact. The sub-tries shared by
+     * the two facts are skipped.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean union(PersistentSetFact<E> other) {
+        PersistentMap<E, E> oldMap = map;
+        map = map.putAll(other.map);
+        return map != oldMap;
+    }
+
+    /**
+     * @return a new fact which is the union of this and other facts.
+     */
+    public PersistentSetFact<E> unionWith(PersistentSetFact<E> other) {
+        PersistentSetFact<E> result = copy();
+        result.union(other);
+        return result;
+    }
+
+    /**
+     * Intersects this fact with other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean intersect(PersistentSetFact<E> other) {
+        if (map == other.map) {
+            return false;
+        }
+        return removeIf(e -> !other.contains(e));
+    }
+
+    /**
+     * @return a new fact which is the intersection of this and other facts.
+     */
+    public PersistentSetFact<E> intersectWith(PersistentSetFact<E> other) {
+        PersistentSetFact<E> result = copy();
+        result.intersect(other);
+        return result;
+    }
+
+    /**
+     * Sets the content of this set to the same as other set.
+     * This takes O(1) time.
+     */
+    public void set(PersistentSetFact<E> other) {
+        map = other.map;
+    }
+
+    /**
+     * Creates and returns a copy of this fact. This takes O(1) time.
+     */
+    public PersistentSetFact<E> copy() {
+        return new PersistentSetFact<>(this);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        map = PersistentMap.empty();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public Stream<E> stream() {
+        return toList().stream();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    private List<E> toList() {
+        List<E> elements = new ArrayList<>(map.size());
+        map.forEach((e, v) -> elements.add(e));
+        return elements;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentSetFact<?> that)) {
+            return false;
+        }
+        return map.equals(that.map);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(); map.hashCode() is not usable
+        // here as it hashes each element with itself
+        int[] hash = { 0 };
+        map.forEach((e, v) -> hash[0] += e.hashCode());
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        return CollectionUtils.toString(toList());
+    }
+}
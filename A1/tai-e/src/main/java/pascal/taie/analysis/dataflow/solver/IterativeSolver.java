@@ -26,13 +26,21 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.LinkedList;
+import javax.annotation.Nullable;
 import java.util.Set;
 
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
+    /**
+     * Strategy of the work-list, see {@link WorkList#make}.
+     */
+    @Nullable
+    private final String strategy;
+
+    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis,
+                           @Nullable String strategy) {
         super(analysis);
+        this.strategy = strategy;
     }
 
     @Override
@@ -44,7 +52,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
 
-        LinkedList<Node> queue = new LinkedList<>();
+        WorkList<Node> queue = WorkList.make(this.strategy, cfg, false);
         Node exit = cfg.getExit();
 
         // 如果采用 BFS 等算法, 从 exit 节点出发, 碰到 while(true) 死循环, 会导致寻找不到可用的前驱
@@ -56,7 +64,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
             }
         }
 
-        while (queue.size() != 0) {
+        while (!queue.isEmpty()) {
             Node currStmt = queue.poll();
 
             Set<Node> succs = cfg.getSuccsOf(currStmt);
@@ -0,0 +1,178 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work-list whose nodes are polled in the depth-first order of the CFG,
+ * i.e., reverse postorder for forward analyses, and postorder for backward
+ * analyses. Visiting nodes in such order makes every node being processed
+ * after (most of) its predecessors (successors), thus the analysis
+ * converges with far fewer transfers.
+ * <p>
+ * Each node is present in the work-list at most once, i.e., adding a node
+ * that is already in the work-list has no effect.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class PriorityWorkList<Node> implements WorkList<Node> {
+
+    /**
+     * Nodes indexed by their priorities.
+     */
+    private final Node[] nodes;
+
+    /**
+     * Priorities of the nodes, smaller value means higher priority.
+     */
+    private final Map<Node, Integer> priorities;
+
+    /**
+     * Priorities of the nodes that are currently in this work-list.
+     */
+    private final BitSet pending;
+
+    /**
+     * Lower bound of the priorities in {@link #pending},
+     * which avoids scanning the bits that are known to be clear.
+     */
+    private int cursor = 0;
+
+    /**
+     * @param order all nodes in the order of their priorities.
+     */
+    @SuppressWarnings("unchecked")
+    private PriorityWorkList(List<Node> order) {
+        int n = order.size();
+        nodes = (Node[]) order.toArray();
+        priorities = Maps.newMap(n);
+        for (int i = 0; i < n; ++i) {
+            priorities.put(nodes[i], i);
+        }
+        pending = new BitSet(n);
+    }
+
+    /**
+     * @return a work-list which polls nodes in depth-first order of the CFG.
+     */
+    static <Node> PriorityWorkList<Node> depthFirst(CFG<Node> cfg, boolean isForward) {
+        return new PriorityWorkList<>(computeDepthFirstOrder(cfg, isForward));
+    }
+
+    /**
+     * Adds a node to this work-list if it is not present.
+     */
+    @Override
+    public void add(Node node) {
+        int priority = priorities.get(node);
+        pending.set(priority);
+        if (priority < cursor) {
+            cursor = priority;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Removes and returns the node with the highest priority.
+     * The client code should call {@link #isEmpty()} to check if this
+     * work-list is empty before calling this method.
+     */
+    @Override
+    public Node poll() {
+        int priority = pending.nextSetBit(cursor);
+        pending.clear(priority);
+        cursor = priority + 1;
+        return nodes[priority];
+    }
+
+    /**
+     * Computes the nodes in reverse postorder for forward analyses,
+     * or in postorder for backward analyses, by iterative depth-first
+     * search from the entry. The nodes that are unreachable from the entry
+     * are also traversed (in iteration order of the CFG) and placed after
+     * the reachable ones, so that every node in the CFG has a priority.
+     */
+    private static <Node> List<Node> computeDepthFirstOrder(CFG<Node> cfg, boolean isForward) {
+        List<Node> order = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        dfs(cfg, cfg.getEntry(), visited, stack, succs, order);
+        if (isForward) {
+            Collections.reverse(order);
+        }
+        for (Node node : cfg) {
+            if (!visited.contains(node)) {
+                // each search is reversed on its own, thus the reversal
+                // does not move the unreachable nodes before the entry
+                int start = order.size();
+                dfs(cfg, node, visited, stack, succs, order);
+                if (isForward) {
+                    Collections.reverse(order.subList(start, order.size()));
+                }
+            }
+        }
+        return order;
+    }
+
+    private static <Node> void dfs(CFG<Node> cfg, Node root,
+                                   Set<Node> visited,
+                                   Deque<Node> stack,
+                                   Deque<Iterator<Node>> succs,
+                                   List<Node> postorder) {
+        visited.add(root);
+        stack.push(root);
+        succs.push(cfg.getSuccsOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> it = succs.peek();
+            if (it.hasNext()) {
+                Node succ = it.next();
+                if (!visited.contains(succ)) {
+                    visited.add(succ);
+                    stack.push(succ);
+                    succs.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                succs.pop();
+                postorder.add(stack.pop());
+            }
+        }
+    }
+}
@@ -24,7 +24,11 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -46,7 +50,18 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new IterativeSolver<>(analysis);
+        return makeSolver(analysis, null);
+    }
+
+    /**
+     * Static factory method to create a new solver for given analysis.
+     *
+     * @param strategy strategy of the work-list used by the solver,
+     *                 see {@link WorkList#make} for the available strategies.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
+        return new IterativeSolver<>(analysis, strategy);
     }
 
     /**
@@ -67,7 +82,7 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +91,22 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. For the CFGs of
+     * statements, the facts are stored in arrays indexed by the statements.
+     */
+    private static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            // the indexes of the statements in IR are [0, #stmts),
+            // and the entry and exit of CFG are #stmts and #stmts + 1
+            return new IndexedDataflowResult<>(
+                    node -> ((Stmt) node).getIndex(),
+                    cfg.getIR().getStmts().size() + 2);
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         throw new UnsupportedOperationException();
     }
@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Work-list of the nodes to be processed by {@link IterativeSolver}.
+ * The strategy of a work-list decides the order in which the nodes
+ * are polled, which does not affect the results, but may affect
+ * the number of transfers before reaching the fixed point.
+ * <p>
+ * Each node is present in a work-list at most once, i.e., adding a node
+ * that is already in the work-list has no effect.
+ *
+ * @param <Node> type of CFG nodes
+ */
+interface WorkList<Node> {
+
+    /**
+     * Adds a node to this work-list if it is not present.
+     */
+    void add(Node node);
+
+    /**
+     * Adds all given nodes to this work-list.
+     */
+    default void addAll(Iterable<Node> nodes) {
+        nodes.forEach(this::add);
+    }
+
+    boolean isEmpty();
+
+    /**
+     * Removes and returns the next node to be processed.
+     * The client code should call {@link #isEmpty()} to check if this
+     * work-list is empty before calling this method.
+     */
+    Node poll();
+
+    /**
+     * Creates a work-list of given strategy for the nodes of given CFG.
+     *
+     * @param strategy strategy of the work-list, which can be
+     *                 "fifo" (default), "lifo", or "rpo" (depth-first
+     *                 order, see {@link PriorityWorkList#depthFirst}).
+     *                 If strategy is null, the default one is used.
+     * @throws ConfigException if strategy is unknown
+     */
+    static <Node> WorkList<Node> make(@Nullable String strategy,
+                                      CFG<Node> cfg, boolean isForward) {
+        if (strategy == null) {
+            return new DequeWorkList<>(false);
+        }
+        return switch (strategy) {
+            case "fifo" -> new DequeWorkList<>(false);
+            case "lifo" -> new DequeWorkList<>(true);
+            case "rpo" -> PriorityWorkList.depthFirst(cfg, isForward);
+            default -> throw new ConfigException("Unknown work-list strategy: " + strategy);
+        };
+    }
+}
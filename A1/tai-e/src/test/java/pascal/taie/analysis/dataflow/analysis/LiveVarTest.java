@@ -28,8 +28,12 @@ import pascal.taie.analysis.Tests;
 public class LiveVarTest {
 
     void testLV(String inputClass) {
+        testLV(inputClass, "strongly:false");
+    }
+
+    void testLV(String inputClass, String opts) {
         Tests.test(inputClass, "src/test/resources/dataflow/livevar",
-                LiveVariableAnalysis.ID, "strongly:false");
+                LiveVariableAnalysis.ID, opts);
     }
 
     @Test
@@ -42,11 +46,26 @@ public class LiveVarTest {
         testLV("GaussianElimination");
     }
 
+    @Test
+    public void testGaussianEliminationWithLIFOWorkList() {
+        testLV("GaussianElimination", "strongly:false;worklist:lifo");
+    }
+
+    @Test
+    public void testGaussianEliminationWithRPOWorkList() {
+        testLV("GaussianElimination", "strongly:false;worklist:rpo");
+    }
+
     @Test
     public void testDeadLoop() {
         testLV("DeadLoop");
     }
 
+    @Test
+    public void testDeadLoopWithRPOWorkList() {
+        testLV("DeadLoop", "strongly:false;worklist:rpo");
+    }
+
 
     @Test
     public void testAssign() {
@@ -108,9 +108,11 @@ public class ConstantPropagation extends
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
+        // taking a snapshot of persistent CPFact is O(1), and comparing
+        // against it only visits the mappings changed since then
         CPFact oldFact = out.copy();
 
-        in.forEach(out::update);
+        out.copyFrom(in);
 
         stmt.getDef().ifPresent(lValue -> {
             if (lValue instanceof Var && ConstantPropagation.canHoldInt((Var) lValue)) {
@@ -0,0 +1,490 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash array mapped trie (HAMT). Every update returns a new
+ * map which shares all untouched sub-tries with the old one, and returns
+ * the receiver itself if the update does not change any mapping.
+ * <p>
+ * The trie is kept in a canonical shape (a sub-trie is created only for
+ * two or more keys, and keys with identical hash codes are stored in
+ * a collision node), thus two maps with the same mappings always have
+ * the same shape. This allows {@link #equals(Object)} to compare two
+ * maps node by node and to skip the sub-tries they share.
+ * <p>
+ * This class does not permit null keys or values.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final BitmapNode EMPTY_NODE =
+            new BitmapNode(0, new Object[0], 0);
+
+    private static final PersistentMap<?, ?> EMPTY =
+            new PersistentMap<>(EMPTY_NODE);
+
+    /**
+     * The root of the trie, which is never collapsed into a leaf
+     * or a collision node.
+     */
+    private final BitmapNode root;
+
+    private PersistentMap(BitmapNode root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return root.size;
+    }
+
+    boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        return (V) get(root, key, key.hashCode(), 0);
+    }
+
+    /**
+     * @return the map with the mapping key -> value added, or this map
+     * if it already contains the same mapping.
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value);
+        Leaf leaf = new Leaf(key, value);
+        return wrap(root.put(leaf, 0));
+    }
+
+    /**
+     * @return the map without the mapping for key, or this map
+     * if it does not contain key.
+     */
+    PersistentMap<K, V> remove(K key) {
+        Object slot = remove(root, key, key.hashCode(), 0);
+        if (slot == root) {
+            return this;
+        }
+        if (slot == null || size(slot) == 0) {
+            return empty();
+        }
+        // the root is never collapsed, so re-wrap the remaining entry
+        return new PersistentMap<>(slot instanceof BitmapNode node ? node :
+                new BitmapNode(bit(hash(slot), 0), new Object[]{ slot }, size(slot)));
+    }
+
+    /**
+     * @return the map that contains all mappings of this map and other,
+     * where the mappings of other take precedence, or this map if other
+     * does not bring any new mapping.
+     */
+    PersistentMap<K, V> putAll(PersistentMap<K, V> other) {
+        if (isEmpty()) {
+            return other.isEmpty() ? this : other;
+        }
+        return wrap((BitmapNode) merge(root, other.root, 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, (BiConsumer<Object, Object>) action);
+    }
+
+    private PersistentMap<K, V> wrap(BitmapNode newRoot) {
+        return newRoot == root ? this : new PersistentMap<>(newRoot);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentMap<?, ?> that)) {
+            return false;
+        }
+        return slotEquals(root, that.root);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode()
+        int[] hash = { 0 };
+        forEach(root, (k, v) -> hash[0] += k.hashCode() ^ v.hashCode());
+        return hash[0];
+    }
+
+    // ---------- trie nodes ----------
+
+    /**
+     * A single key-value mapping stored in a slot.
+     */
+    private static final class Leaf {
+
+        private final Object key;
+
+        private final Object value;
+
+        private final int hash;
+
+        private Leaf(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+            this.hash = key.hashCode();
+        }
+    }
+
+    /**
+     * Two or more mappings whose keys have the same hash code.
+     */
+    private static final class CollisionNode {
+
+        private final int hash;
+
+        private final Leaf[] leaves;
+
+        private CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; ++i) {
+                if (leaves[i].key.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Inner node that holds up to 32 slots, each of which is
+     * a {@link Leaf}, a {@link CollisionNode} or a {@link BitmapNode}.
+     */
+    private static final class BitmapNode {
+
+        private final int bitmap;
+
+        private final Object[] slots;
+
+        /**
+         * Number of mappings in this sub-trie.
+         */
+        private final int size;
+
+        private BitmapNode(int bitmap, Object[] slots, int size) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode put(Leaf leaf, int shift) {
+            int bit = bit(leaf.hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, i);
+                newSlots[i] = leaf;
+                System.arraycopy(slots, i, newSlots, i + 1, slots.length - i);
+                return new BitmapNode(bitmap | bit, newSlots, size + 1);
+            }
+            Object slot = slots[i];
+            return replace(i, slot, putLeaf(slot, leaf, shift + BITS));
+        }
+
+        private BitmapNode replace(int i, Object oldSlot, Object newSlot) {
+            if (newSlot == oldSlot) {
+                return this;
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[i] = newSlot;
+            return new BitmapNode(bitmap, newSlots,
+                    size - size(oldSlot) + size(newSlot));
+        }
+    }
+
+    // ---------- trie operations ----------
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int hash(Object slot) {
+        return slot instanceof Leaf leaf ?
+                leaf.hash : ((CollisionNode) slot).hash;
+    }
+
+    private static int size(Object slot) {
+        if (slot instanceof Leaf) {
+            return 1;
+        } else if (slot instanceof CollisionNode c) {
+            return c.leaves.length;
+        } else {
+            return ((BitmapNode) slot).size;
+        }
+    }
+
+    private static Object get(Object slot, Object key, int hash, int shift) {
+        while (true) {
+            if (slot instanceof Leaf leaf) {
+                return leaf.key.equals(key) ? leaf.value : null;
+            } else if (slot instanceof CollisionNode c) {
+                int i = c.hash == hash ? c.indexOf(key) : -1;
+                return i >= 0 ? c.leaves[i].value : null;
+            } else {
+                BitmapNode node = (BitmapNode) slot;
+                int bit = bit(hash, shift);
+                if ((node.bitmap & bit) == 0) {
+                    return null;
+                }
+                slot = node.slots[node.index(bit)];
+                shift += BITS;
+            }
+        }
+    }
+
+    /**
+     * Puts a leaf into the sub-trie in a slot whose contents are
+     * distinguished from the <code>shift</code>-th bit of hash codes.
+     */
+    private static Object putLeaf(Object slot, Leaf leaf, int shift) {
+        if (slot instanceof Leaf old) {
+            if (old.key.equals(leaf.key)) {
+                return old.value.equals(leaf.value) ? old : leaf;
+            }
+            return pair(old, leaf, shift);
+        } else if (slot instanceof CollisionNode c) {
+            if (c.hash != leaf.hash) {
+                return pair(c, leaf, shift);
+            }
+            int i = c.indexOf(leaf.key);
+            if (i < 0) {
+                Leaf[] leaves = Arrays.copyOf(c.leaves, c.leaves.length + 1);
+                leaves[c.leaves.length] = leaf;
+                return new CollisionNode(c.hash, leaves);
+            }
+            if (c.leaves[i].value.equals(leaf.value)) {
+                return c;
+            }
+            Leaf[] leaves = c.leaves.clone();
+            leaves[i] = leaf;
+            return new CollisionNode(c.hash, leaves);
+        } else {
+            return ((BitmapNode) slot).put(leaf, shift);
+        }
+    }
+
+    /**
+     * Creates the slot contents for two entries (leaf or collision node)
+     * with distinct keys.
+     */
+    private static Object pair(Object e1, Object e2, int shift) {
+        int h1 = hash(e1), h2 = hash(e2);
+        if (h1 == h2) { // only leaves can reach here
+            return new CollisionNode(h1, new Leaf[]{ (Leaf) e1, (Leaf) e2 });
+        }
+        int b1 = bit(h1, shift), b2 = bit(h2, shift);
+        int size = size(e1) + size(e2);
+        if (b1 == b2) {
+            return new BitmapNode(b1,
+                    new Object[]{ pair(e1, e2, shift + BITS) }, size);
+        }
+        return new BitmapNode(b1 | b2, Integer.compareUnsigned(b1, b2) < 0 ?
+                new Object[]{ e1, e2 } : new Object[]{ e2, e1 }, size);
+    }
+
+    /**
+     * Merges the sub-tries in two slots at the same position,
+     * where the mappings in s2 take precedence.
+     */
+    private static Object merge(Object s1, Object s2, int shift) {
+        if (s1 == s2) {
+            return s1;
+        }
+        if (s2 instanceof Leaf leaf) {
+            return putLeaf(s1, leaf, shift);
+        }
+        if (s1 instanceof Leaf leaf) {
+            return get(s2, leaf.key, leaf.hash, shift) != null ?
+                    s2 : putLeaf(s2, leaf, shift);
+        }
+        if (s1 instanceof BitmapNode n1 && s2 instanceof BitmapNode n2) {
+            return mergeNodes(n1, n2, shift);
+        }
+        // at least one collision node, merge it mapping by mapping
+        if (s2 instanceof CollisionNode c2) {
+            Object result = s1;
+            for (Leaf leaf : c2.leaves) {
+                result = putLeaf(result, leaf, shift);
+            }
+            return result;
+        } else {
+            Object result = s2;
+            for (Leaf leaf : ((CollisionNode) s1).leaves) {
+                if (get(s2, leaf.key, leaf.hash, shift) == null) {
+                    result = putLeaf(result, leaf, shift);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static BitmapNode mergeNodes(BitmapNode n1, BitmapNode n2, int shift) {
+        int bitmap = n1.bitmap | n2.bitmap;
+        Object[] slots = new Object[Integer.bitCount(bitmap)];
+        boolean changed = bitmap != n1.bitmap;
+        int size = 0;
+        for (int bits = bitmap, i = 0; bits != 0; bits &= bits - 1, ++i) {
+            int bit = bits & -bits;
+            Object slot;
+            if ((n2.bitmap & bit) == 0) {
+                slot = n1.slots[n1.index(bit)];
+            } else if ((n1.bitmap & bit) == 0) {
+                slot = n2.slots[n2.index(bit)];
+            } else {
+                Object s1 = n1.slots[n1.index(bit)];
+                slot = merge(s1, n2.slots[n2.index(bit)], shift + BITS);
+                changed |= slot != s1;
+            }
+            slots[i] = slot;
+            size += size(slot);
+        }
+        return changed ? new BitmapNode(bitmap, slots, size) : n1;
+    }
+
+    /**
+     * @return the slot contents without the mapping for key, which may be
+     * null (nothing left) or collapsed into a single leaf/collision node.
+     */
+    private static Object remove(Object slot, Object key, int hash, int shift) {
+        if (slot instanceof Leaf leaf) {
+            return leaf.key.equals(key) ? null : leaf;
+        } else if (slot instanceof CollisionNode c) {
+            int i = c.hash == hash ? c.indexOf(key) : -1;
+            if (i < 0) {
+                return c;
+            }
+            if (c.leaves.length == 2) {
+                return c.leaves[1 - i];
+            }
+            Leaf[] leaves = new Leaf[c.leaves.length - 1];
+            System.arraycopy(c.leaves, 0, leaves, 0, i);
+            System.arraycopy(c.leaves, i + 1, leaves, i, leaves.length - i);
+            return new CollisionNode(c.hash, leaves);
+        }
+        BitmapNode node = (BitmapNode) slot;
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int i = node.index(bit);
+        Object oldSlot = node.slots[i];
+        Object newSlot = remove(oldSlot, key, hash, shift + BITS);
+        if (newSlot == oldSlot) {
+            return node;
+        }
+        if (newSlot != null) {
+            if (node.slots.length == 1 && !(newSlot instanceof BitmapNode)) {
+                return newSlot; // collapse
+            }
+            return node.replace(i, oldSlot, newSlot);
+        }
+        if (node.slots.length == 2) {
+            Object rest = node.slots[1 - i];
+            if (!(rest instanceof BitmapNode)) {
+                return rest; // collapse
+            }
+        }
+        Object[] newSlots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, newSlots, 0, i);
+        System.arraycopy(node.slots, i + 1, newSlots, i, newSlots.length - i);
+        return new BitmapNode(node.bitmap & ~bit, newSlots, node.size - 1);
+    }
+
+    private static void forEach(Object slot, BiConsumer<Object, Object> action) {
+        if (slot instanceof Leaf leaf) {
+            action.accept(leaf.key, leaf.value);
+        } else if (slot instanceof CollisionNode c) {
+            for (Leaf leaf : c.leaves) {
+                action.accept(leaf.key, leaf.value);
+            }
+        } else {
+            for (Object s : ((BitmapNode) slot).slots) {
+                forEach(s, action);
+            }
+        }
+    }
+
+    private static boolean slotEquals(Object s1, Object s2) {
+        if (s1 == s2) {
+            return true;
+        }
+        if (s1 instanceof Leaf l1 && s2 instanceof Leaf l2) {
+            return l1.key.equals(l2.key) && l1.value.equals(l2.value);
+        }
+        if (s1 instanceof CollisionNode c1 && s2 instanceof CollisionNode c2) {
+            if (c1.hash != c2.hash || c1.leaves.length != c2.leaves.length) {
+                return false;
+            }
+            for (Leaf leaf : c1.leaves) {
+                int i = c2.indexOf(leaf.key);
+                if (i < 0 || !c2.leaves[i].value.equals(leaf.value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (s1 instanceof BitmapNode n1 && s2 instanceof BitmapNode n2) {
+            if (n1.bitmap != n2.bitmap || n1.size != n2.size) {
+                return false;
+            }
+            for (int i = 0; i < n1.slots.length; ++i) {
+                if (!slotEquals(n1.slots[i], n2.slots[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Represents map-like data-flow facts backed by a persistent
+ * (immutable, structure-sharing) hash trie. It provides the same
+ * operations as {@link MapFact}, but {@link #copy()} takes O(1) time,
+ * and copies share all mappings with their original until either side
+ * is updated, where only the path to the updated mapping is duplicated.
+ * <p>
+ * As the underlying trie is canonical, {@link #equals(Object)} only
+ * needs to visit the parts of two facts that are not shared. Thus,
+ * a transfer function can take a snapshot of OUT fact by {@link #copy()}
+ * before updating it, and cheaply compare the result against the snapshot.
+ * <p>
+ * This class does not permit null keys or values.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMapFact<K, V> {
+
+    /**
+     * The current (immutable) mappings of this fact.
+     */
+    private PersistentMap<K, V> map;
+
+    /**
+     * Constructs a new empty PersistentMapFact.
+     */
+    public PersistentMapFact() {
+        this.map = PersistentMap.empty();
+    }
+
+    /**
+     * Constructs a new PersistentMapFact with the same mappings as
+     * specified fact. This takes O(1) time.
+     */
+    protected PersistentMapFact(PersistentMapFact<K, V> fact) {
+        this.map = fact.map;
+    }
+
+    /**
+     * @return the value to which the specified key is mapped,
+     * or null if this map contains no mapping for the key.
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Updates the key-value mapping in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean update(K key, V value) {
+        PersistentMap<K, V> oldMap = map;
+        map = map.put(key, value);
+        return map != oldMap;
+    }
+
+    /**
+     * Removes the key-value mapping for given key.
+     *
+     * @return the previous value associated with key,
+     * or null if there was no mapping for key.
+     */
+    public V remove(K key) {
+        V oldValue = map.get(key);
+        if (oldValue != null) {
+            map = map.remove(key);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Copies the content from given fact to this fact. The sub-tries
+     * shared by the two facts are skipped.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(PersistentMapFact<K, V> fact) {
+        PersistentMap<K, V> oldMap = map;
+        map = map.putAll(fact.map);
+        return map != oldMap;
+    }
+
+    /**
+     * Creates and returns a copy of this fact. This takes O(1) time.
+     */
+    public PersistentMapFact<K, V> copy() {
+        return new PersistentMapFact<>(this);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        map = PersistentMap.empty();
+    }
+
+    /**
+     * @return a {@link Set} of the keys contained in this fact.
+     * Unlike {@link MapFact#keySet()}, this set is not a view.
+     */
+    public Set<K> keySet() {
+        Set<K> keys = Sets.newHybridSet();
+        map.forEach((k, v) -> keys.add(k));
+        return keys;
+    }
+
+    /**
+     * @return all entries (key-value mappings) in this fact.
+     */
+    public Stream<Map.Entry<K, V>> entries() {
+        Stream.Builder<Map.Entry<K, V>> builder = Stream.builder();
+        map.forEach((k, v) -> builder.add(Map.entry(k, v)));
+        return builder.build();
+    }
+
+    /**
+     * Performs the given action for each entry(key-value mapping) in this fact
+     * until all entries have been processed or the action throws an exception.
+     *
+     * @param action the action to be performed for each entry.
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PersistentMapFact<?, ?> that = (PersistentMapFact<?, ?>) o;
+        return map.equals(that.map);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        // Sort key-value pairs by key's string representation, so that the
+        // fact representation is stable across executions. This is useful
+        // for comparing expected results and the ones given by the analysis.
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Work-list which polls nodes in first-in-first-out or
+ * last-in-first-out order.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class DequeWorkList<Node> implements WorkList<Node> {
+
+    private final Deque<Node> deque = new ArrayDeque<>();
+
+    private final Set<Node> pending = Sets.newSet();
+
+    /**
+     * Whether this work-list is last-in-first-out.
+     */
+    private final boolean lifo;
+
+    DequeWorkList(boolean lifo) {
+        this.lifo = lifo;
+    }
+
+    @Override
+    public void add(Node node) {
+        if (pending.add(node)) {
+            deque.addLast(node);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return deque.isEmpty();
+    }
+
+    @Override
+    public Node poll() {
+        Node node = lifo ? deque.pollLast() : deque.pollFirst();
+        pending.remove(node);
+        return node;
+    }
+}
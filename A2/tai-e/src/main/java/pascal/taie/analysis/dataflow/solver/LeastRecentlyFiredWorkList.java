@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work-list which polls the node that was least recently fired,
+ * i.e., polled, first. The nodes that have never been fired are polled
+ * before the others, and ties are broken by the order of addition.
+ * This avoids repeatedly processing the nodes of a hot region
+ * while the others wait for long.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class LeastRecentlyFiredWorkList<Node> implements WorkList<Node> {
+
+    /**
+     * Time when each node was last fired.
+     */
+    private final Map<Node, Long> lastFired = Maps.newMap();
+
+    /**
+     * Nodes in this work-list. As a node's last fired time does not
+     * change while it is in this work-list, the queue keeps its order.
+     */
+    private final Queue<Entry<Node>> queue = new PriorityQueue<>(
+            Comparator.<Entry<Node>>comparingLong(Entry::lastFired)
+                    .thenComparingLong(Entry::seq));
+
+    private final Set<Node> pending = Sets.newSet();
+
+    private long clock = 0;
+
+    private long seq = 0;
+
+    private record Entry<Node>(Node node, long lastFired, long seq) {
+    }
+
+    @Override
+    public void add(Node node) {
+        if (pending.add(node)) {
+            queue.add(new Entry<>(node, lastFired.getOrDefault(node, 0L), seq++));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public Node poll() {
+        Node node = queue.poll().node();
+        pending.remove(node);
+        lastFired.put(node, ++clock);
+        return node;
+    }
+}
@@ -24,7 +24,12 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -46,7 +51,34 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return new WorkListSolver<>(analysis, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind     kind of the solver, which can be "worklist" (default),
+     *                 or "priority" (work-list solver which visits nodes in
+     *                 reverse postorder, see {@link PriorityWorkList}).
+     *                 If kind is null, the default solver is created.
+     * @param strategy strategy of the work-list, see {@link WorkList#make}.
+     *                 If strategy is null, the default strategy of the
+     *                 solver is used.
+     * @throws ConfigException if kind or strategy is unknown
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis,
+            @Nullable String kind, @Nullable String strategy) {
+        if (kind == null) {
+            kind = "worklist";
+        }
+        return switch (kind) {
+            case "worklist" -> new WorkListSolver<>(analysis, strategy);
+            case "priority" -> new WorkListSolver<>(analysis,
+                    strategy != null ? strategy : "rpo");
+            default -> throw new ConfigException("Unknown solver: " + kind);
+        };
     }
 
     /**
@@ -67,7 +99,7 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +108,22 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. For the CFGs of
+     * statements, the facts are stored in arrays indexed by the statements.
+     */
+    private static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            // the indexes of the statements in IR are [0, #stmts),
+            // and the entry and exit of CFG are #stmts and #stmts + 1
+            return new IndexedDataflowResult<>(
+                    node -> ((Stmt) node).getIndex(),
+                    cfg.getIR().getStmts().size() + 2);
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         Node entry = cfg.getEntry();
@@ -23,24 +23,32 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeSet;
+import javax.annotation.Nullable;
 
+/**
+ * Work-list solver, whose order of processing nodes is decided by
+ * the strategy of its {@link WorkList}.
+ */
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+    /**
+     * Strategy of the work-list, see {@link WorkList#make}.
+     */
+    @Nullable
+    private final String strategy;
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
         super(analysis);
+        this.strategy = strategy;
     }
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        HashSet<Node> workList = new HashSet<>();
+        WorkList<Node> workList = WorkList.make(this.strategy, cfg, true);
         Node entry = cfg.getEntry();
 
         for (Node node : cfg) {
@@ -50,8 +58,7 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         }
 
         while (!workList.isEmpty()) {
-            Node current = workList.iterator().next();
-            workList.remove(current);
+            Node current = workList.poll();
 
             Fact inFact = result.getInFact(current);
 
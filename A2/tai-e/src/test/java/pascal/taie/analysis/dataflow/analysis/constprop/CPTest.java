@@ -28,8 +28,12 @@ import pascal.taie.analysis.Tests;
 public class CPTest {
 
     void testCP(String inputClass) {
+        testCP(inputClass, "edge-refine:false");
+    }
+
+    void testCP(String inputClass, String opts) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
-                ConstantPropagation.ID, "edge-refine:false");
+                ConstantPropagation.ID, opts);
     }
 
     @Test
@@ -66,4 +70,24 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testPrioritySolver() {
+        testCP("Interprocedural", "edge-refine:false;solver:priority");
+    }
+
+    @Test
+    public void testLIFOWorkList() {
+        testCP("Interprocedural", "edge-refine:false;worklist:lifo");
+    }
+
+    @Test
+    public void testSCCWorkList() {
+        testCP("Interprocedural", "edge-refine:false;worklist:scc");
+    }
+
+    @Test
+    public void testLRFWorkList() {
+        testCP("Interprocedural", "edge-refine:false;worklist:lrf");
+    }
 }
@@ -0,0 +1,435 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * On-disk cache of the results of a {@link MethodAnalysis}, which allows
+ * the results to be reused across runs. Each result is stored in its own
+ * compressed binary file under the directory given by option
+ * {@code cache-dir} of the analysis (by default, the output directory),
+ * and the file is keyed
+ * by the hash of the analysis ID and options, the method signature, the IR
+ * and the CFG of the method, so that any change of them misses the cache.
+ * If the result also depends on other analyses which are run by the analysis,
+ * their IDs and options must be given as dependencies of the cache.
+ * <p>
+ * The code of the analyses is hashed too, i.e., the jar files or class
+ * directories which contain the analysis, its dependencies, this cache
+ * and the IR classes. Hence, recompiling any class in the build output,
+ * e.g., the solvers and the facts the analysis relies on, or replacing
+ * the jar of Tai-e invalidates all cached results.
+ *
+ * @param <R> type of the analysis results
+ */
+public class MethodSummaryCache<R> {
+
+    private static final Logger logger = LogManager.getLogger(MethodSummaryCache.class);
+
+    /**
+     * Version of the cache format, which is part of the key,
+     * so that the files of old formats are never read.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Hashes of the code sources, i.e., jar files or class directories,
+     * which are computed at most once per run.
+     */
+    private static final Map<Path, String> codeHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Converts the results of the analysis from/to binary form.
+     * The elements of IR, e.g., variables and statements,
+     * should be encoded by their indexes.
+     */
+    public interface Codec<R> {
+
+        void write(DataOutput out, IR ir, R result) throws IOException;
+
+        R read(DataInput in, IR ir) throws IOException;
+    }
+
+    /**
+     * Converts the results of a data-flow analysis from/to binary form.
+     * The nodes of the CFG are statements, and they are encoded by their
+     * indexes, i.e., the statements in IR are [0, #stmts), and the entry
+     * and exit of CFG are #stmts and #stmts + 1.
+     */
+    public static class DataflowResultCodec<Node, Fact>
+            implements Codec<DataflowResult<Node, Fact>> {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private final FactCodec<Fact> factCodec;
+
+        /**
+         * @param analysis  the analysis which creates the facts to be read
+         * @param factCodec codec of the facts
+         */
+        public DataflowResultCodec(DataflowAnalysis<Node, Fact> analysis,
+                                   FactCodec<Fact> factCodec) {
+            this.analysis = analysis;
+            this.factCodec = factCodec;
+        }
+
+        @Override
+        public void write(DataOutput out, IR ir,
+                          DataflowResult<Node, Fact> result) throws IOException {
+            Node[] nodes = getNodes(ir);
+            out.writeInt(nodes.length);
+            for (Node node : nodes) {
+                writeFact(out, result.getInFact(node));
+                writeFact(out, result.getOutFact(node));
+            }
+        }
+
+        private void writeFact(DataOutput out, @Nullable Fact fact)
+                throws IOException {
+            out.writeBoolean(fact != null);
+            if (fact != null) {
+                factCodec.write(out, fact);
+            }
+        }
+
+        @Override
+        public DataflowResult<Node, Fact> read(DataInput in, IR ir) throws IOException {
+            Node[] nodes = getNodes(ir);
+            if (in.readInt() != nodes.length) {
+                throw new IOException("Mismatched number of nodes");
+            }
+            DataflowResult<Node, Fact> result = new IndexedDataflowResult<>(
+                    node -> ((Stmt) node).getIndex(), nodes.length);
+            for (Node node : nodes) {
+                result.setInFact(node, readFact(in, ir));
+                result.setOutFact(node, readFact(in, ir));
+            }
+            return result;
+        }
+
+        @Nullable
+        private Fact readFact(DataInput in, IR ir) throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            Fact fact = analysis.newInitialFact(
+                    ir.<CFG<Node>>getResult(CFGBuilder.ID));
+            factCodec.read(in, ir, fact);
+            return fact;
+        }
+
+        /**
+         * @return the nodes of the CFG of given IR, indexed by the indexes
+         * of the statements.
+         */
+        @SuppressWarnings("unchecked")
+        private Node[] getNodes(IR ir) {
+            CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+            Node[] nodes = (Node[]) new Object[cfg.getNumberOfNodes()];
+            for (Node node : cfg) {
+                nodes[((Stmt) node).getIndex()] = node;
+            }
+            return nodes;
+        }
+    }
+
+    private final String id;
+
+    /**
+     * IDs and options of the analysis and its dependencies,
+     * and the hashes of their code.
+     */
+    private final String fingerprint;
+
+    private final Path dir;
+
+    private final Codec<R> codec;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param analysis     the analysis whose results are cached
+     * @param codec        codec of the results
+     * @param dependencies the analyses run by the analysis,
+     *                     whose results affect the cached results
+     */
+    public MethodSummaryCache(Analysis analysis, Codec<R> codec,
+                              Analysis... dependencies) {
+        this.id = analysis.getId();
+        StringBuilder builder = new StringBuilder();
+        appendFingerprint(builder, analysis);
+        for (Analysis dependency : dependencies) {
+            appendFingerprint(builder, dependency);
+        }
+        builder.append(hashCodeSource(MethodSummaryCache.class)).append('\n')
+                .append(hashCodeSource(IR.class)).append('\n');
+        this.fingerprint = builder.toString();
+        String cacheDir = analysis.getOptions().getString("cache-dir");
+        this.dir = (cacheDir != null ? Path.of(cacheDir) :
+                Configs.getOutputDir().toPath().resolve("summary-cache"))
+                .resolve(id);
+        this.codec = codec;
+        // makes the hits and misses of this run available to the clients
+        World world = World.get();
+        if (world != null) {
+            world.storeResult(getKey(id), this);
+        }
+    }
+
+    /**
+     * Creates the cache of the results of given data-flow analysis
+     * if its option cache is set.
+     *
+     * @param factCodec codec of the facts of the analysis, or null if
+     *                  the facts cannot be cached
+     * @return the cache, or null if option cache is not set.
+     * @throws ConfigException if option cache is set, but factCodec is null
+     */
+    @Nullable
+    public static <Node, Fact, A extends Analysis & DataflowAnalysis<Node, Fact>>
+    MethodSummaryCache<DataflowResult<Node, Fact>> ofDataflow(
+            A analysis, @Nullable FactCodec<Fact> factCodec) {
+        if (!analysis.getOptions().getBooleanOrDefault("cache", false)) {
+            return null;
+        }
+        if (factCodec == null) {
+            throw new ConfigException("Option cache of " + analysis.getId() +
+                    " is not supported, as its facts cannot be cached");
+        }
+        return new MethodSummaryCache<>(analysis,
+                new DataflowResultCodec<>(analysis, factCodec));
+    }
+
+    /**
+     * @return the key of the cache of given analysis in {@link World}.
+     */
+    public static String getKey(String analysisId) {
+        return "summary-cache:" + analysisId;
+    }
+
+    private static void appendFingerprint(StringBuilder builder, Analysis analysis) {
+        builder.append(analysis.getId())
+                .append(analysis.getOptions())
+                .append(hashCodeSource(analysis.getClass()))
+                .append('\n');
+    }
+
+    /**
+     * @return hash of the jar file or class directory which contains
+     * given class, or empty string if it is not available.
+     */
+    private static String hashCodeSource(Class<?> c) {
+        CodeSource source = c.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) {
+            return "";
+        }
+        try {
+            Path path = Path.of(source.getLocation().toURI());
+            return codeHashes.computeIfAbsent(path, MethodSummaryCache::hashPath);
+        } catch (URISyntaxException | IllegalArgumentException |
+                 FileSystemNotFoundException e) {
+            return "";
+        }
+    }
+
+    /**
+     * @return hash of given jar file, or of the names and contents of
+     * all files in given directory, or empty string if reading fails.
+     */
+    private static String hashPath(Path path) {
+        MessageDigest digest = newDigest();
+        try (OutputStream out = new DigestOutputStream(
+                OutputStream.nullOutputStream(), digest)) {
+            if (Files.isDirectory(path)) {
+                List<Path> files;
+                try (Stream<Path> paths = Files.walk(path)) {
+                    files = paths.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    out.write(path.relativize(file).toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    Files.copy(file, out);
+                }
+            } else {
+                Files.copy(path, out);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to hash {}", path, e);
+            return "";
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return number of results read from the cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of results computed by the analyzer, including
+     * the ones whose cached files failed to be read.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the cached result for given IR if present, otherwise
+     * the result given by the analyzer, which is then cached.
+     */
+    public R computeIfAbsent(IR ir, Supplier<R> analyzer) {
+        Path file = dir.resolve(getKey(ir) + ".bin");
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new InflaterInputStream(Files.newInputStream(file))))) {
+                R result = codec.read(in, ir);
+                hits.incrementAndGet();
+                return result;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to read cached {} result of {}, recomputing",
+                        id, ir.getMethod(), e);
+            }
+        }
+        misses.incrementAndGet();
+        R result = analyzer.get();
+        write(file, ir, result);
+        return result;
+    }
+
+    private void write(Path file, IR ir, R result) {
+        try {
+            Files.createDirectories(dir);
+            // write to a temporary file and then move it, so that
+            // the other runs never see partially-written files
+            Path temp = Files.createTempFile(dir, null, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new DeflaterOutputStream(Files.newOutputStream(temp))))) {
+                codec.write(out, ir, result);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache {} result of {}", id, ir.getMethod(), e);
+        }
+    }
+
+    /**
+     * @return the key of the result of given IR, i.e., the hex string
+     * of SHA-256 hash of all information the result depends on.
+     */
+    private String getKey(IR ir) {
+        StringBuilder builder = new StringBuilder()
+                .append(VERSION).append('\n')
+                .append(fingerprint)
+                .append(ir.getMethod()).append('\n');
+        for (Var var : ir.getVars()) {
+            builder.append(var.getName()).append(':')
+                    .append(var.getType()).append('\n');
+        }
+        for (Stmt stmt : ir) {
+            builder.append(IRPrinter.toString(stmt)).append('\n');
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            builder.append(entry.start().getIndex()).append('-')
+                    .append(entry.end().getIndex()).append("->")
+                    .append(entry.handler().getIndex()).append(':')
+                    .append(entry.catchType()).append('\n');
+        }
+        // the CFG depends on the options of CFG builder, e.g.,
+        // the exceptions to be analyzed, thus it is hashed too
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (cfg != null) {
+            for (Stmt node : cfg) {
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    builder.append(node.getIndex()).append("->")
+                            .append(edge.getTarget().getIndex()).append(':')
+                            .append(edge.getKind());
+                    if (edge.isSwitchCase()) {
+                        builder.append(edge.getCaseValue());
+                    }
+                    builder.append('\n');
+                }
+            }
+        }
+        return HexFormat.of().formatHex(
+                newDigest().digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
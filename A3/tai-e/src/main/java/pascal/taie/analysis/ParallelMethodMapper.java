@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Ordered parallel map over methods, which is used by
+ * {@link ResultProcessor} to process the results of the methods.
+ * The methods are split into chunks recursively and mapped by the
+ * work-stealing threads of a {@link ForkJoinPool}, while the results are
+ * collected in the order of given methods, so that the outcome is
+ * independent of thread scheduling.
+ */
+public final class ParallelMethodMapper {
+
+    /**
+     * Methods are processed sequentially if the number of them
+     * is no more than this threshold.
+     */
+    private static final int THRESHOLD = 8;
+
+    private ParallelMethodMapper() {
+    }
+
+    /**
+     * @return the non-abstract and non-native methods of application classes,
+     * sorted by the line numbers of their first statements.
+     */
+    public static List<JMethod> getAppMethods() {
+        return World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .sorted(Comparator.comparing(m ->
+                        m.getIR().getStmt(0).getLineNumber()))
+                .toList();
+    }
+
+    /**
+     * Applies given function to given methods in parallel.
+     *
+     * @return the results of the methods, in the same order as the methods.
+     */
+    public static <R> List<R> map(List<JMethod> methods,
+                                  Function<JMethod, R> function) {
+        Object[] results = new Object[methods.size()];
+        ForkJoinPool.commonPool().invoke(new MapTask<>(
+                methods, function, results, 0, methods.size()));
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+
+    private static class MapTask<R> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<JMethod> methods;
+
+        private final Function<JMethod, R> function;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private MapTask(List<JMethod> methods, Function<JMethod, R> function,
+                        Object[] results, int from, int to) {
+            this.methods = methods;
+            this.function = function;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; ++i) {
+                    results[i] = function.apply(methods.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MapTask<>(methods, function, results, from, mid),
+                        new MapTask<>(methods, function, results, mid, to));
+            }
+        }
+    }
+}
@@ -25,26 +25,30 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Pair;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static pascal.taie.util.collection.CollectionUtils.getOne;
 
@@ -92,6 +96,10 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        String metrics = getOptions().getString("metrics");
+        if (metrics != null && groups.containsKey(false)) {
+            dumpMetrics(metrics, groups.get(false));
+        }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
@@ -147,31 +155,77 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
-                .getClassHierarchy()
-                .applicationClasses()
-                .map(JClass::getDeclaredMethods)
-                .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+        List<JMethod> methods = ParallelMethodMapper.getAppMethods();
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
+    /**
+     * Processes the results of the methods in parallel. Each method is
+     * dumped to (or compared into) its own buffer, and the buffers are
+     * merged in the order of the methods, so that the output is the same
+     * as processing the methods one by one.
+     */
+    private void processResults(List<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
+        switch (action) {
+            case "dump" -> ParallelMethodMapper.map(methods, method -> {
+                StringWriter buffer = new StringWriter();
+                PrintWriter writer = new PrintWriter(buffer);
+                analyses.forEach(id ->
+                        dumpResult(writer, method, id, resultGetter));
+                writer.flush();
+                return buffer.toString();
+            }).forEach(out::print);
+            case "compare" -> ParallelMethodMapper.map(methods, method -> {
+                Set<String> buffer = new LinkedHashSet<>();
+                analyses.forEach(id ->
+                        compareResult(buffer, method, id, resultGetter));
+                return buffer;
+            }).forEach(mismatches::addAll);
+        }
+    }
+
+    /**
+     * Dumps the solver metrics of given intra-procedural analyses
+     * (if collected) to file in given format, i.e., json or csv.
+     * When dumping results to a file, the metrics are placed next to
+     * the file, otherwise (e.g., when comparing with the expected results),
+     * they are placed in the output directory.
+     */
+    private void dumpMetrics(String format, List<String> analyses) {
+        if (!format.equals("json") && !format.equals("csv")) {
+            throw new ConfigException("Unknown metrics format: " + format);
+        }
+        List<SolverMetrics> metrics = new ArrayList<>();
+        ParallelMethodMapper.getAppMethods().forEach(method ->
                 analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
+                    SolverMetrics m = method.getIR()
+                            .getResult(SolverMetrics.getKey(id));
+                    if (m != null) {
+                        metrics.add(m);
                     }
-                })
-        );
+                }));
+        String output = getOptions().getString("file");
+        File file = action.equals("dump") && output != null ?
+                new File(output + ".metrics." + format) :
+                new File(Configs.getOutputDir(), "solver-metrics." + format);
+        logger.info("Dumping solver metrics to {} ...", file);
+        try (PrintStream out = new PrintStream(file)) {
+            if (format.equals("json")) {
+                out.println(metrics.stream()
+                        .map(m -> "  " + m.toJson())
+                        .collect(Collectors.joining(",\n", "[\n", "\n]")));
+            } else {
+                out.println(SolverMetrics.CSV_HEADER);
+                metrics.forEach(m -> out.println(m.toCsv()));
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("Failed to open metrics file", e);
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    private static void dumpResult(PrintWriter out, JMethod method, String id,
+                                   BiFunction<JMethod, String, ?> resultGetter) {
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -205,7 +259,7 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
+    private void compareResult(Set<String> mismatches, JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
         Object result = resultGetter.apply(method, id);
@@ -23,29 +23,74 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.MethodSummaryCache;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
-import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.solver.SolverOptions;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import javax.annotation.Nullable;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
-    private final Solver<Node, Fact> solver;
+    private final SolverOptions solverOptions;
+
+    /**
+     * On-disk cache of the results, or null if the results are not cached.
+     */
+    @Nullable
+    private final MethodSummaryCache<DataflowResult<Node, Fact>> cache;
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solverOptions = SolverOptions.of(getOptions());
+        cache = MethodSummaryCache.ofDataflow(this, getFactCodec());
+    }
+
+    @Nullable
+    MethodSummaryCache<DataflowResult<Node, Fact>> getCache() {
+        return cache;
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        DataflowResult<Node, Fact> result = cache != null ?
+                cache.computeIfAbsent(ir, () -> solve(ir, cfg)) :
+                solve(ir, cfg);
+        solverOptions.internFacts(cfg, result);
+        return result;
+    }
+
+    private DataflowResult<Node, Fact> solve(IR ir, CFG<Node> cfg) {
+        return solverOptions.solve(getId(), specialize(cfg), ir, cfg);
+    }
+
+    /**
+     * @return the analysis to be solved on given CFG. Subclasses can
+     * override this method to specialize the analysis for the CFG,
+     * e.g., to precompute the transfer functions of the nodes.
+     * By default, this analysis itself is solved.
+     */
+    protected DataflowAnalysis<Node, Fact> specialize(CFG<Node> cfg) {
+        return this;
+    }
+
+    /**
+     * @return the codec of the facts of this analysis, which is required
+     * to cache the results on disk, or null if the facts cannot be cached,
+     * in which case option cache is rejected. By default, the facts
+     * are not cached.
+     */
+    @Nullable
+    protected FactCodec<Fact> getFactCodec() {
+        return null;
     }
 
     /**
@@ -0,0 +1,120 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.CoSolver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs several intra-procedural data-flow analyses with {@link CoSolver},
+ * so that the analyses of the same direction are solved in one traversal
+ * of the CFG. The result of each analysis is stored in IR under its own ID,
+ * as if the analysis is run separately, and this analysis returns the IDs.
+ */
+public class CoDataflowAnalysis extends MethodAnalysis {
+
+    public static final String ID = "co-dataflow";
+
+    /**
+     * Options of this analysis which are passed to the analyses it runs.
+     */
+    private static final List<String> ANALYSIS_OPTIONS =
+            List.of("compile", "edge-refine", "strongly");
+
+    private final List<String> ids;
+
+    private final List<AbstractDataflowAnalysis<Stmt, ?>> analyses;
+
+    private final CoSolver solver;
+
+    @SuppressWarnings("unchecked")
+    public CoDataflowAnalysis(AnalysisConfig config) {
+        super(config);
+        ids = List.copyOf((List<String>) getOptions().get("analyses"));
+        analyses = ids.stream()
+                .<AbstractDataflowAnalysis<Stmt, ?>>map(id -> switch (id) {
+                    case ConstantPropagation.ID ->
+                            new ConstantPropagation(newConfig(id));
+                    case ReachingDefinitionAnalysis.ID ->
+                            new ReachingDefinitionAnalysis(newConfig(id));
+                    case LiveVariableAnalysis.ID ->
+                            new LiveVariableAnalysis(newConfig(id));
+                    default -> throw new ConfigException(
+                            "Unsupported analysis for " + ID + ": " + id);
+                })
+                .toList();
+        solver = new CoSolver(getOptions().getString("solver"),
+                getOptions().getString("worklist"));
+    }
+
+    /**
+     * @return the config of the analysis of given ID, which carries
+     * the options of this analysis given in {@link #ANALYSIS_OPTIONS}.
+     */
+    private AnalysisConfig newConfig(String id) {
+        List<Object> options = new ArrayList<>();
+        for (String key : ANALYSIS_OPTIONS) {
+            Object value = getOptions().get(key);
+            if (value != null) {
+                options.add(key);
+                options.add(value);
+            }
+        }
+        return new AnalysisConfig(id, options.toArray());
+    }
+
+    @Override
+    public List<String> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        // analyses of different directions cannot share a traversal,
+        // thus forward and backward analyses are solved separately
+        solve(ir, cfg, true);
+        solve(ir, cfg, false);
+        return ids;
+    }
+
+    private void solve(IR ir, CFG<Stmt> cfg, boolean isForward) {
+        List<AbstractDataflowAnalysis<Stmt, ?>> group = analyses.stream()
+                .filter(analysis -> analysis.isForward() == isForward)
+                .toList();
+        if (!group.isEmpty()) {
+            List<DataflowResult<Stmt, ?>> results = solver.solve(cfg, group.stream()
+                    .<DataflowAnalysis<Stmt, ?>>map(analysis -> analysis.specialize(cfg))
+                    .toList());
+            for (int i = 0; i < group.size(); ++i) {
+                ir.storeResult(group.get(i).getId(), results.get(i));
+            }
+        }
+    }
+}
@@ -45,9 +45,22 @@ public interface DataflowAnalysis<Node, Fact> {
     Fact newBoundaryFact(CFG<Node> cfg);
 
     /**
-     * @return new initial fact for non-boundary nodes.
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * The facts may depend on the method being analyzed, e.g.,
+     * the facts indexed by the variables of the method.
      */
-    Fact newInitialFact();
+    Fact newInitialFact(CFG<Node> cfg);
+
+    /**
+     * Resets given fact to the initial fact of its CFG, so that the solvers
+     * can reuse the fact as a scratch fact instead of creating a new one.
+     *
+     * @return true if the fact is reset, or false if this analysis does not
+     * support resetting facts, which is the default.
+     */
+    default boolean resetFact(Fact fact) {
+        return false;
+    }
 
     /**
      * Meets a fact into another (target) fact.
@@ -73,4 +86,13 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     Fact transferEdge(Edge<Node> edge, Fact nodeFact);
+
+    /**
+     * @return the size of given fact, e.g., the number of the elements
+     * in the fact, which is used only for collecting solver metrics.
+     * By default, the size is unknown and -1 is returned.
+     */
+    default int getFactSize(Fact fact) {
+        return -1;
+    }
 }
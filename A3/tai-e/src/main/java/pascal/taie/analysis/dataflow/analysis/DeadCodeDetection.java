@@ -23,32 +23,136 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.MethodSummaryCache;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseCPResult;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
 
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Constant propagation (either {@link ConstantPropagation} or
+     * {@link SparseConstantPropagation}, as given by option constprop)
+     * run by the fused pipeline, or null if the results are obtained
+     * from the IR.
+     */
+    @Nullable
+    private final MethodAnalysis constprop;
+
+    /**
+     * Live variable analysis run by the fused pipeline, or null if
+     * the results are obtained from the IR.
+     */
+    @Nullable
+    private final LiveVariableAnalysis livevar;
+
+    /**
+     * On-disk cache of the dead code, or null if it is not cached.
+     * The dead code is only cached by the fused pipeline, as otherwise
+     * constant propagation and live variable analysis are run anyway,
+     * and their results can be cached by themselves.
+     */
+    @Nullable
+    private final MethodSummaryCache<Set<Stmt>> cache;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        if (getOptions().getBooleanOrDefault("fused", false)) {
+            String cpId = getOptions().getString("constprop");
+            constprop = switch (cpId) {
+                case ConstantPropagation.ID -> new ConstantPropagation(
+                        newConfig(ConstantPropagation.ID, "constprop-options"));
+                case SparseConstantPropagation.ID -> new SparseConstantPropagation(
+                        newConfig(SparseConstantPropagation.ID, "constprop-options"));
+                default -> throw new ConfigException(
+                        "Unknown constant propagation: " + cpId);
+            };
+            livevar = new LiveVariableAnalysis(
+                    newConfig(LiveVariableAnalysis.ID, "livevar-options"));
+        } else {
+            constprop = null;
+            livevar = null;
+        }
+        if (getOptions().getBooleanOrDefault("cache", false)) {
+            if (constprop == null) {
+                throw new ConfigException("Option cache of " + ID +
+                        " requires fused:true, otherwise, cache the results" +
+                        " of constprop and livevar instead");
+            }
+            // the dead code depends on the analyses run by the pipeline
+            cache = new MethodSummaryCache<>(this, new DeadCodeCodec(),
+                    constprop, livevar);
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * @return the config of the analysis of given ID run by the fused
+     * pipeline, which carries the options in the map given by option
+     * {@code key} of this analysis, e.g., {@code constprop-options}.
+     * Options solver and worklist of this analysis are also passed,
+     * unless the map overrides them.
+     */
+    @SuppressWarnings("unchecked")
+    private AnalysisConfig newConfig(String id, String key) {
+        Map<String, Object> options = new LinkedHashMap<>();
+        for (String shared : List.of("solver", "worklist")) {
+            Object value = getOptions().get(shared);
+            if (value != null) {
+                options.put(shared, value);
+            }
+        }
+        Object map = getOptions().get(key);
+        if (map instanceof Map) {
+            options.putAll((Map<String, Object>) map);
+        } else if (map != null) {
+            throw new ConfigException("Option " + key + " of " + ID +
+                    " should be a map of options of " + id + ", given: " + map);
+        }
+        List<Object> keyValues = new ArrayList<>();
+        options.forEach((k, v) -> {
+            keyValues.add(k);
+            keyValues.add(v);
+        });
+        return new AnalysisConfig(id, keyValues.toArray());
+    }
+
+    @Nullable
+    MethodSummaryCache<Set<Stmt>> getCache() {
+        return cache;
     }
 
-    private Set<Stmt> visitCFG(CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants) {
+    /**
+     * @param constants result of constant propagation, which can be null
+     *                  if the CFG contains no if/switch statements.
+     * @return the statements reachable from the entry of the CFG.
+     */
+    private Set<Stmt> visitCFG(CFG<Stmt> cfg,
+                               @Nullable NodeResult<Stmt, CPFact> constants) {
         HashSet<Stmt> visitedStmt = new HashSet<>();
         Queue<Stmt> queue = new LinkedList<>();
         queue.add(cfg.getEntry());
@@ -67,7 +171,8 @@ public class DeadCodeDetection extends MethodAnalysis {
                 ConditionExp conditionExp = ((If) current).getCondition();
 
                 if (ConstantPropagation.canHoldInt(conditionExp.getOperand1()) && ConstantPropagation.canHoldInt(conditionExp.getOperand2())) {
-                    Value result = ConstantPropagation.evaluate(conditionExp, constants.getInFact(current));
+                    Value result = ConstantPropagation.evaluate(conditionExp, getInFact(
+                            constants, current, conditionExp.getOperand1(), conditionExp.getOperand2()));
 
                     if (result.isConstant()) {
                         // 能够判断的 if
@@ -88,9 +193,11 @@ public class DeadCodeDetection extends MethodAnalysis {
             if (current instanceof SwitchStmt) {
                 SwitchStmt switchStmt = (SwitchStmt) current;
                 Var switchVar = switchStmt.getVar();
-                if (ConstantPropagation.canHoldInt(switchVar) && constants.getInFact(switchStmt).get(switchVar).isConstant()) {
+                Value switchValue = ConstantPropagation.canHoldInt(switchVar) ?
+                        getInFact(constants, switchStmt, switchVar).get(switchVar) : null;
+                if (switchValue != null && switchValue.isConstant()) {
                     // var 为 int 可以判断, 这个判断应该是多余的
-                    int switchVarValue = constants.getInFact(switchStmt).get(switchVar).getConstant();
+                    int switchVarValue = switchValue.getConstant();
                     Set<Edge<Stmt>> outEdges = cfg.getOutEdgesOf(current);
                     Edge<Stmt> defaultEdge = null;
                     boolean foundTarget = false;
@@ -121,35 +228,72 @@ public class DeadCodeDetection extends MethodAnalysis {
         return visitedStmt;
     }
 
+    /**
+     * @return a fact containing (at least) the values of given variables
+     * that flow into given statement. For {@link SparseCPResult}, only
+     * the values of given variables are queried, instead of building the
+     * whole fact of the statement.
+     */
+    private static CPFact getInFact(NodeResult<Stmt, CPFact> constants,
+                                    Stmt stmt, Var... vars) {
+        if (constants instanceof SparseCPResult sparse) {
+            CPFact fact = new CPFact();
+            for (Var var : vars) {
+                fact.update(var, sparse.getInValue(stmt, var));
+            }
+            return fact;
+        }
+        return constants.getInFact(stmt);
+    }
+
     private Set<Stmt> getDeadAssignment(CFG<Stmt> cfg, DataflowResult<Stmt, SetFact<Var>> liveVars) {
         HashSet<Stmt> deadAssignment = new HashSet<>();
 
         for (Stmt stmt : cfg) {
-            stmt.getDef().ifPresent(lValue -> {
-                if (lValue instanceof Var) {
-                    if (!liveVars.getOutFact(stmt).contains((Var) lValue)) {
-                        boolean noSideEffect = true;
-                        for (RValue rValue : stmt.getUses()) {
-                            noSideEffect &= DeadCodeDetection.hasNoSideEffect(rValue);
-                        }
-                        if (noSideEffect) {
-                            deadAssignment.add(stmt);
-                        }
-                    }
-                }
-            });
+            Var lValue = getRemovableDef(stmt);
+            if (lValue != null && !liveVars.getOutFact(stmt).contains(lValue)) {
+                deadAssignment.add(stmt);
+            }
         }
 
         return deadAssignment;
     }
 
+    /**
+     * @return the variable defined by given stmt if the stmt can be removed
+     * when the variable is dead, i.e., the stmt assigns to a variable and
+     * has no side effect, otherwise null.
+     */
+    @Nullable
+    private static Var getRemovableDef(Stmt stmt) {
+        if (stmt.getDef().orElse(null) instanceof Var lValue) {
+            for (RValue rValue : stmt.getUses()) {
+                if (!DeadCodeDetection.hasNoSideEffect(rValue)) {
+                    return null;
+                }
+            }
+            return lValue;
+        }
+        return null;
+    }
+
     @Override
     public Set<Stmt> analyze(IR ir) {
+        return cache != null ?
+                cache.computeIfAbsent(ir, () -> detect(ir)) :
+                detect(ir);
+    }
+
+    private Set<Stmt> detect(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
-        // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
+        if (constprop != null) {
+            return analyzeFused(ir, cfg);
+        }
+        // obtain result of constant propagation, which is given by
+        // either ConstantPropagation or SparseConstantPropagation
+        NodeResult<Stmt, CPFact> constants =
+                ir.getResult(getOptions().getString("constprop"));
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
@@ -170,6 +314,55 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * Fused pipeline, which runs constant propagation and live variable
+     * analysis on demand and drops their results once the dead code
+     * is detected. Constant propagation is skipped for the methods without
+     * branches, and the liveness is only queried for the reachable
+     * assignments which are removable.
+     * <p>
+     * The two analyses are still solved one after the other, as live
+     * variable analysis is backward and cannot share a forward pass
+     * with constant propagation.
+     */
+    private Set<Stmt> analyzeFused(IR ir, CFG<Stmt> cfg) {
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        // the constants are only used to decide the branches of if/switch
+        boolean hasBranch = false;
+        for (Stmt stmt : cfg) {
+            if (stmt instanceof If || stmt instanceof SwitchStmt) {
+                hasBranch = true;
+                break;
+            }
+        }
+        Set<Stmt> reachable = visitCFG(cfg,
+                hasBranch ? analyzeConstants(ir) : null);
+        List<Stmt> removable = new ArrayList<>();
+        for (Stmt stmt : cfg) {
+            if (!reachable.contains(stmt)) {
+                if (!cfg.isEntry(stmt) && !cfg.isExit(stmt)) {
+                    deadCode.add(stmt);
+                }
+            } else if (getRemovableDef(stmt) != null) {
+                removable.add(stmt);
+            }
+        }
+        if (!removable.isEmpty()) {
+            DataflowResult<Stmt, SetFact<Var>> liveVars = livevar.analyze(ir);
+            for (Stmt stmt : removable) {
+                if (!liveVars.getOutFact(stmt).contains(getRemovableDef(stmt))) {
+                    deadCode.add(stmt);
+                }
+            }
+        }
+        return deadCode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NodeResult<Stmt, CPFact> analyzeConstants(IR ir) {
+        return (NodeResult<Stmt, CPFact>) constprop.analyze(ir);
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
@@ -192,4 +385,28 @@ public class DeadCodeDetection extends MethodAnalysis {
         }
         return true;
     }
+
+    /**
+     * Encodes the dead code as the number of the statements,
+     * followed by the indexes of the statements.
+     */
+    private static class DeadCodeCodec implements MethodSummaryCache.Codec<Set<Stmt>> {
+
+        @Override
+        public void write(DataOutput out, IR ir, Set<Stmt> deadCode) throws IOException {
+            out.writeInt(deadCode.size());
+            for (Stmt stmt : deadCode) {
+                out.writeInt(stmt.getIndex());
+            }
+        }
+
+        @Override
+        public Set<Stmt> read(DataInput in, IR ir) throws IOException {
+            Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+            for (int n = in.readInt(); n > 0; --n) {
+                deadCode.add(ir.getStmt(in.readInt()));
+            }
+            return deadCode;
+        }
+    }
 }
@@ -22,12 +22,20 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Implementation of classic live variable analysis.
  */
@@ -48,13 +56,18 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
     @Override
-    public SetFact<Var> newInitialFact() {
-        // TODO - finish me
-        return new SetFact<>();
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<>(cfg.getIR().getVars());
+    }
+
+    @Override
+    public boolean resetFact(SetFact<Var> fact) {
+        fact.clear();
+        return true;
     }
 
     @Override
@@ -63,25 +76,55 @@ public class LiveVariableAnalysis extends
         target.union(fact);
     }
 
+    /**
+     * Encodes each fact as the number of live variables,
+     * followed by the indexes of the variables.
+     */
+    @Override
+    protected FactCodec<SetFact<Var>> getFactCodec() {
+        return new FactCodec<>() {
+            @Override
+            public void write(DataOutput out, SetFact<Var> fact) throws IOException {
+                List<Var> vars = fact.stream().toList();
+                out.writeInt(vars.size());
+                for (Var var : vars) {
+                    out.writeInt(var.getIndex());
+                }
+            }
+
+            @Override
+            public void read(DataInput in, IR ir, SetFact<Var> fact) throws IOException {
+                for (int n = in.readInt(); n > 0; --n) {
+                    fact.add(ir.getVar(in.readInt()));
+                }
+            }
+        };
+    }
+
+    @Override
+    public int getFactSize(SetFact<Var> fact) {
+        return fact.size();
+    }
+
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
-
-        SetFact<Var> inCopy = in.copy();
+        // The transfer function is monotone and OUT facts only grow during
+        // the iteration, so does IN fact, i.e., the new IN fact is always
+        // a superset of the old one. Thus, we detect the change by comparing
+        // their sizes, instead of copying the old fact.
+        int oldSize = in.size();
         in.set(out);
-
         stmt.getDef().ifPresent(lValue -> {
             if (lValue instanceof Var) {
                 in.remove((Var) lValue);
             }
         });
-
         stmt.getUses().forEach(use -> {
             if (use instanceof Var) {
                 in.add((Var) use);
             }
         });
-
-        return !inCopy.equals(in);
+        return in.size() != oldSize;
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of classic reaching definition analysis, where
+ * the definitions are the statements which assign to variables.
+ */
+public class ReachingDefinitionAnalysis extends
+        AbstractDataflowAnalysis<Stmt, SetFact<Stmt>> {
+
+    public static final String ID = "reachdef";
+
+    public ReachingDefinitionAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    /**
+     * Solves the analysis with the kill sets of the CFG,
+     * see {@link KillSetAnalysis}.
+     */
+    @Override
+    protected DataflowAnalysis<Stmt, SetFact<Stmt>> specialize(CFG<Stmt> cfg) {
+        return new KillSetAnalysis(this, cfg);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public SetFact<Stmt> newBoundaryFact(CFG<Stmt> cfg) {
+        return newInitialFact(cfg);
+    }
+
+    @Override
+    public SetFact<Stmt> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<>(cfg.getIR().getStmts());
+    }
+
+    @Override
+    public boolean resetFact(SetFact<Stmt> fact) {
+        fact.clear();
+        return true;
+    }
+
+    @Override
+    public void meetInto(SetFact<Stmt> fact, SetFact<Stmt> target) {
+        target.union(fact);
+    }
+
+    @Override
+    public int getFactSize(SetFact<Stmt> fact) {
+        return fact.size();
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<Stmt> in, SetFact<Stmt> out) {
+        // As in live variable analysis, the transfer function is monotone
+        // and IN facts only grow during the iteration, so does OUT fact.
+        // Thus, we detect the change by comparing their sizes.
+        int oldSize = out.size();
+        out.set(in);
+        if (stmt.getDef().orElse(null) instanceof Var var) {
+            // kill the other definitions of var, and generate stmt
+            out.removeIf(def -> def.getDef().orElse(null) == var);
+            out.add(stmt);
+        }
+        return out.size() != oldSize;
+    }
+
+    /**
+     * Reaching definition analysis specialized for a CFG, which precomputes
+     * the definitions of each variable as a bit set, so that a statement
+     * kills the definitions of the variable it defines word by word,
+     * instead of testing the definitions in the fact one by one.
+     */
+    private static class KillSetAnalysis
+            implements DataflowAnalysis<Stmt, SetFact<Stmt>> {
+
+        private final ReachingDefinitionAnalysis analysis;
+
+        /**
+         * Definitions killed by each statement, i.e., all definitions of
+         * the variable defined by the statement, indexed by the statement
+         * indexes, and null for the statements which define no variables.
+         * The statements defining the same variable share the kill set.
+         */
+        private final SetFact<Stmt>[] kills;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private KillSetAnalysis(ReachingDefinitionAnalysis analysis, CFG<Stmt> cfg) {
+            this.analysis = analysis;
+            // the entry and exit of CFG (indexes #stmts and #stmts + 1)
+            // define no variables
+            List<Stmt> stmts = cfg.getIR().getStmts();
+            this.kills = new SetFact[stmts.size() + 2];
+            Map<Var, SetFact<Stmt>> defs = Maps.newMap();
+            for (Stmt stmt : stmts) {
+                if (stmt.getDef().orElse(null) instanceof Var var) {
+                    SetFact<Stmt> kill = defs.computeIfAbsent(var,
+                            v -> new BitSetFact<>(stmts));
+                    kill.add(stmt);
+                    kills[stmt.getIndex()] = kill;
+                }
+            }
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Stmt> in, SetFact<Stmt> out) {
+            int oldSize = out.size();
+            out.set(in);
+            SetFact<Stmt> kill = kills[stmt.getIndex()];
+            if (kill != null) {
+                out.removeAll(kill);
+                out.add(stmt);
+            }
+            return out.size() != oldSize;
+        }
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public SetFact<Stmt> newBoundaryFact(CFG<Stmt> cfg) {
+            return analysis.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public SetFact<Stmt> newInitialFact(CFG<Stmt> cfg) {
+            return analysis.newInitialFact(cfg);
+        }
+
+        @Override
+        public boolean resetFact(SetFact<Stmt> fact) {
+            return analysis.resetFact(fact);
+        }
+
+        @Override
+        public void meetInto(SetFact<Stmt> fact, SetFact<Stmt> target) {
+            analysis.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return analysis.needTransferEdge(edge);
+        }
+
+        @Override
+        public SetFact<Stmt> transferEdge(Edge<Stmt> edge, SetFact<Stmt> nodeFact) {
+            return analysis.transferEdge(edge, nodeFact);
+        }
+
+        @Override
+        public int getFactSize(SetFact<Stmt> fact) {
+            return analysis.getFactSize(fact);
+        }
+    }
+}
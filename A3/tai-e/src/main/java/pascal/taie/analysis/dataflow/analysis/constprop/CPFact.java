@@ -22,55 +22,347 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
-import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Sets;
 
-import java.util.Collections;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Represents data facts of constant propagation, which maps variables
  * to their lattice values.
  * <p>
+ * The lattice values are stored in arrays indexed by {@link Var#getIndex()}:
+ * the kind of each value (UNDEF, constant, or NAC) is kept in a byte array,
+ * and the integer of each constant is kept in an int array, so that updating,
+ * copying and meeting facts do not need to allocate {@link Value} objects.
+ * <p>
  * Note that in this implementation, we use absence to represent UNDEF,
  * i.e., if a CPFact does not contain variable-value mapping of a variable,
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
  */
-public class CPFact extends MapFact<Var, Value> {
+public class CPFact {
+
+    static final byte UNDEF = 0;
+
+    static final byte CONSTANT = 1;
+
+    static final byte NAC = 2;
+
+    private static final byte[] EMPTY_KINDS = {};
+
+    private static final int[] EMPTY_VALUES = {};
+
+    private static final Var[] EMPTY_VARS = {};
+
+    /**
+     * Kinds of the lattice values of the variables.
+     */
+    private byte[] kinds;
+
+    /**
+     * Integers of the constants, only meaningful for the variables
+     * whose kinds are {@link #CONSTANT}.
+     */
+    private int[] values;
+
+    /**
+     * The variables which are not UNDEF in this fact.
+     */
+    private Var[] vars;
 
     public CPFact() {
-        this(Collections.emptyMap());
+        this(0);
+    }
+
+    /**
+     * Creates an empty fact which can hold the values of the variables
+     * whose indexes are less than given capacity without growing.
+     * Typically, the capacity is the number of variables in the method.
+     */
+    public CPFact(int capacity) {
+        if (capacity == 0) {
+            kinds = EMPTY_KINDS;
+            values = EMPTY_VALUES;
+            vars = EMPTY_VARS;
+        } else {
+            kinds = new byte[capacity];
+            values = new int[capacity];
+            vars = new Var[capacity];
+        }
+    }
+
+    private CPFact(CPFact fact) {
+        kinds = fact.kinds.clone();
+        values = fact.values.clone();
+        vars = fact.vars.clone();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > kinds.length) {
+            int newCapacity = Math.max(capacity, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            vars = Arrays.copyOf(vars, newCapacity);
+        }
+    }
+
+    byte kindAt(int i) {
+        return i < kinds.length ? kinds[i] : UNDEF;
+    }
+
+    /**
+     * @return the constant at given index, which is meaningful only if
+     * the kind at the index is {@link #CONSTANT}.
+     */
+    int constantAt(int i) {
+        return values[i];
     }
 
-    private CPFact(Map<Var, Value> map) {
-        super(map);
+    private Value valueAt(int i) {
+        return switch (kindAt(i)) {
+            case CONSTANT -> Value.makeConstant(values[i]);
+            case NAC -> Value.getNAC();
+            default -> Value.getUndef();
+        };
+    }
+
+    /**
+     * Sets the lattice value at given index.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean set(int i, Var var, byte kind, int value) {
+        if (kind == UNDEF) {
+            if (kindAt(i) == UNDEF) {
+                return false;
+            }
+            kinds[i] = UNDEF;
+            vars[i] = null;
+            return true;
+        }
+        ensureCapacity(i + 1);
+        if (kinds[i] == kind && (kind != CONSTANT || values[i] == value)) {
+            return false;
+        }
+        kinds[i] = kind;
+        values[i] = value;
+        vars[i] = var;
+        return true;
     }
 
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
      */
-    @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        return valueAt(key.getIndex());
     }
 
-    @Override
+    /**
+     * Updates the value of given variable in this fact.
+     *
+     * @return if the update changes this fact.
+     */
     public boolean update(Var key, Value value) {
-        if (value.isUndef()) {
-            // if the client code sets variable key to UNDEF,
-            // then we remove the variable from the CPFact
-            // as we use absence to represent UNDEF.
-            return remove(key) != null;
+        // if the client code sets variable key to UNDEF,
+        // then we remove the variable from the CPFact
+        // as we use absence to represent UNDEF.
+        if (value.isConstant()) {
+            return set(key.getIndex(), key, CONSTANT, value.getConstant());
         } else {
-            return super.update(key, value);
+            return set(key.getIndex(), key,
+                    value.isNAC() ? NAC : UNDEF, 0);
         }
     }
 
-    @Override
+    /**
+     * Removes the value of given variable.
+     *
+     * @return the previous value associated with given variable,
+     * or null if the variable was UNDEF.
+     */
+    @Nullable
+    public Value remove(Var key) {
+        int i = key.getIndex();
+        if (kindAt(i) == UNDEF) {
+            return null;
+        }
+        Value value = valueAt(i);
+        set(i, key, UNDEF, 0);
+        return value;
+    }
+
+    /**
+     * Copies the content from given fact to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(CPFact fact) {
+        return copyFrom(fact, null);
+    }
+
+    /**
+     * Copies the content from given fact to this fact, except the value
+     * of variable {@code except}, which is left untouched in this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(CPFact fact, @Nullable Var except) {
+        int skip = except != null ? except.getIndex() : -1;
+        boolean changed = false;
+        byte[] otherKinds = fact.kinds;
+        for (int i = 0; i < otherKinds.length; ++i) {
+            if (otherKinds[i] != UNDEF && i != skip) {
+                changed |= set(i, fact.vars[i], otherKinds[i], fact.values[i]);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Meets this fact into given (target) fact, i.e., for each variable,
+     * the value in target fact is updated to the meet of its values
+     * in the two facts.
+     *
+     * @return true if target fact changed as a result of the call, otherwise false.
+     */
+    public boolean meetInto(CPFact target) {
+        boolean changed = false;
+        for (int i = 0; i < kinds.length; ++i) {
+            byte kind = kinds[i];
+            if (kind == UNDEF) {
+                // UNDEF meets any value v is v
+                continue;
+            }
+            byte targetKind = target.kindAt(i);
+            if (targetKind == UNDEF) {
+                changed |= target.set(i, vars[i], kind, values[i]);
+            } else if (targetKind == CONSTANT) {
+                if (kind == NAC || values[i] != target.values[i]) {
+                    changed |= target.set(i, vars[i], NAC, 0);
+                }
+            }
+            // target value is NAC, which meets any value is NAC
+        }
+        return changed;
+    }
+
+    /**
+     * @return the number of variables which are not UNDEF in this fact.
+     */
+    public int size() {
+        int size = 0;
+        for (byte kind : kinds) {
+            if (kind != UNDEF) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
     public CPFact copy() {
-        return new CPFact(this.map);
+        return new CPFact(this);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        Arrays.fill(kinds, UNDEF);
+        Arrays.fill(vars, null);
+    }
+
+    /**
+     * @return indexes of the variables which are not UNDEF in this fact.
+     */
+    private IntStream indexes() {
+        return IntStream.range(0, kinds.length)
+                .filter(i -> kinds[i] != UNDEF);
+    }
+
+    /**
+     * @return a {@link Set} of the variables which are not UNDEF in this fact.
+     * The returned set is not backed by this fact.
+     */
+    public Set<Var> keySet() {
+        Set<Var> keys = Sets.newHybridSet();
+        indexes().forEach(i -> keys.add(vars[i]));
+        return keys;
+    }
+
+    /**
+     * @return all entries (variable-value mappings) in this fact.
+     */
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return indexes().mapToObj(i -> Map.entry(vars[i], valueAt(i)));
+    }
+
+    /**
+     * Performs the given action for each entry (variable-value mapping)
+     * in this fact until all entries have been processed or the action
+     * throws an exception.
+     *
+     * @param action the action to be performed for each entry.
+     */
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (int i = 0; i < kinds.length; ++i) {
+            if (kinds[i] != UNDEF) {
+                action.accept(vars[i], valueAt(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CPFact that)) {
+            return false;
+        }
+        int length = Math.max(kinds.length, that.kinds.length);
+        for (int i = 0; i < length; ++i) {
+            byte kind = kindAt(i);
+            if (kind != that.kindAt(i) ||
+                    (kind == CONSTANT && values[i] != that.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < kinds.length; ++i) {
+            if (kinds[i] != UNDEF) {
+                hash += i ^ (kinds[i] == CONSTANT ? values[i] : -1);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        // Sort key-value pairs by key's string representation, so that the
+        // fact representation is stable across executions. This is useful
+        // for comparing expected results and the ones given by the analysis.
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
     }
 }
@@ -0,0 +1,295 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.CPFact.CONSTANT;
+import static pascal.taie.analysis.dataflow.analysis.constprop.CPFact.NAC;
+import static pascal.taie.analysis.dataflow.analysis.constprop.CPFact.UNDEF;
+
+/**
+ * Constant propagation specialized for a method, whose statements are
+ * compiled once into {@link Transfer} descriptors. The transfer function
+ * then runs on the descriptors and the raw lattice values of
+ * {@link CPFact}, instead of dispatching on the IR and boxing
+ * {@link Value}s on every visit. The results are the same as
+ * {@link ConstantPropagation#transferNode(Stmt, CPFact, CPFact)}.
+ */
+class CompiledConstantPropagation implements DataflowAnalysis<Stmt, CPFact> {
+
+    // opcodes of transfer descriptors
+    private static final byte IDENTITY = 0;
+
+    private static final byte LITERAL = 1;
+
+    private static final byte TOP = 2; // defines NAC
+
+    private static final byte COPY = 3;
+
+    private static final byte ADD = 4, SUB = 5, MUL = 6, DIV = 7, REM = 8,
+            SHL = 9, SHR = 10, USHR = 11, OR = 12, AND = 13, XOR = 14,
+            EQ = 15, NE = 16, GE = 17, GT = 18, LE = 19, LT = 20;
+
+    private static final Transfer IDENTITY_TRANSFER =
+            new Transfer(IDENTITY, null, 0, 0, false, false, 0, 0);
+
+    private final ConstantPropagation analysis;
+
+    /**
+     * Transfer descriptors indexed by the statement indexes.
+     */
+    private final Transfer[] transfers;
+
+    CompiledConstantPropagation(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        // the entry and exit of CFG (indexes #stmts and #stmts + 1)
+        // are transferred as identity
+        List<Stmt> stmts = cfg.getIR().getStmts();
+        this.transfers = new Transfer[stmts.size() + 2];
+        Arrays.fill(transfers, IDENTITY_TRANSFER);
+        for (Stmt stmt : stmts) {
+            transfers[stmt.getIndex()] = compile(stmt);
+        }
+    }
+
+    /**
+     * Descriptor of the transfer function of a statement.
+     *
+     * @param opcode       kind of the computation of the defined value
+     * @param def          the defined variable, or null for IDENTITY
+     * @param op1          index of the first operand variable (COPY and
+     *                     binary opcodes), or the literal value (LITERAL)
+     * @param op2          index of the second operand variable
+     * @param op1IsLiteral whether the first operand is a temporary constant
+     * @param op2IsLiteral whether the second operand is a temporary constant
+     * @param literal1     value of the first operand if it is a literal
+     * @param literal2     value of the second operand if it is a literal
+     */
+    private record Transfer(byte opcode, Var def, int op1, int op2,
+                            boolean op1IsLiteral, boolean op2IsLiteral,
+                            int literal1, int literal2) {
+    }
+
+    /**
+     * Compiles the statement following the same case analysis as
+     * {@link ConstantPropagation#evaluateDef(Stmt, CPFact)}, where
+     * the last use which determines the value wins.
+     */
+    private static Transfer compile(Stmt stmt) {
+        if (!(stmt.getDef().orElse(null) instanceof Var def) ||
+                !ConstantPropagation.canHoldInt(def)) {
+            return IDENTITY_TRANSFER;
+        }
+        Transfer transfer = IDENTITY_TRANSFER;
+        for (RValue rValue : stmt.getUses()) {
+            if (rValue instanceof BinaryExp binary) {
+                Var left = binary.getOperand1();
+                Var right = binary.getOperand2();
+                if (ConstantPropagation.canHoldInt(left) &&
+                        ConstantPropagation.canHoldInt(right) &&
+                        (binary instanceof ArithmeticExp || binary instanceof ConditionExp ||
+                                binary instanceof ShiftExp || binary instanceof BitwiseExp)) {
+                    transfer = new Transfer(opcodeOf(binary.getOperator()), def,
+                            left.getIndex(), right.getIndex(),
+                            left.isTempConst(), right.isTempConst(),
+                            literalOf(left), literalOf(right));
+                }
+            } else if (rValue instanceof Var var) {
+                if (ConstantPropagation.canHoldInt(var)) {
+                    transfer = var.isTempConst() ?
+                            new Transfer(LITERAL, def, literalOf(var), 0, false, false, 0, 0) :
+                            new Transfer(COPY, def, var.getIndex(), 0, false, false, 0, 0);
+                }
+            } else if (rValue instanceof IntLiteral literal) {
+                transfer = new Transfer(LITERAL, def, literal.getValue(), 0, false, false, 0, 0);
+            } else {
+                transfer = new Transfer(TOP, def, 0, 0, false, false, 0, 0);
+            }
+        }
+        return transfer;
+    }
+
+    private static int literalOf(Var var) {
+        return var.isTempConst() ?
+                ((IntLiteral) var.getTempConstValue()).getValue() : 0;
+    }
+
+    private static byte opcodeOf(BinaryExp.Op op) {
+        if (op instanceof ArithmeticExp.Op arithmetic) {
+            return switch (arithmetic) {
+                case ADD -> ADD;
+                case SUB -> SUB;
+                case MUL -> MUL;
+                case DIV -> DIV;
+                case REM -> REM;
+            };
+        } else if (op instanceof ShiftExp.Op shift) {
+            return switch (shift) {
+                case SHL -> SHL;
+                case SHR -> SHR;
+                case USHR -> USHR;
+            };
+        } else if (op instanceof BitwiseExp.Op bitwise) {
+            return switch (bitwise) {
+                case OR -> OR;
+                case AND -> AND;
+                case XOR -> XOR;
+            };
+        } else {
+            return switch ((ConditionExp.Op) op) {
+                case EQ -> EQ;
+                case NE -> NE;
+                case GE -> GE;
+                case GT -> GT;
+                case LE -> LE;
+                case LT -> LT;
+            };
+        }
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+        Transfer t = transfers[stmt.getIndex()];
+        byte kind;
+        int value = 0;
+        switch (t.opcode) {
+            case IDENTITY -> {
+                return out.copyFrom(in);
+            }
+            case LITERAL -> {
+                kind = CONSTANT;
+                value = t.op1;
+            }
+            case TOP -> kind = NAC;
+            case COPY -> {
+                kind = in.kindAt(t.op1);
+                if (kind == CONSTANT) {
+                    value = in.constantAt(t.op1);
+                }
+            }
+            default -> {
+                byte kind1 = in.kindAt(t.op1);
+                byte kind2 = in.kindAt(t.op2);
+                boolean const1 = t.op1IsLiteral || kind1 == CONSTANT;
+                boolean const2 = t.op2IsLiteral || kind2 == CONSTANT;
+                int v2 = t.op2IsLiteral ? t.literal2 :
+                        (kind2 == CONSTANT ? in.constantAt(t.op2) : 0);
+                if (const1 && const2) {
+                    int v1 = t.op1IsLiteral ? t.literal1 : in.constantAt(t.op1);
+                    if (v2 == 0 && (t.opcode == DIV || t.opcode == REM)) {
+                        kind = UNDEF;
+                    } else {
+                        kind = CONSTANT;
+                        value = evaluate(t.opcode, v1, v2);
+                    }
+                } else if (kind1 == NAC || kind2 == NAC) {
+                    kind = const2 && v2 == 0 && (t.opcode == DIV || t.opcode == REM) ?
+                            UNDEF : NAC;
+                } else {
+                    kind = UNDEF;
+                }
+            }
+        }
+        // copy all values except def, see ConstantPropagation.transferNode()
+        boolean changed = out.copyFrom(in, t.def);
+        return out.set(t.def.getIndex(), t.def, kind, value) || changed;
+    }
+
+    private static int evaluate(byte opcode, int v1, int v2) {
+        return switch (opcode) {
+            case ADD -> v1 + v2;
+            case SUB -> v1 - v2;
+            case MUL -> v1 * v2;
+            case DIV -> v1 / v2;
+            case REM -> v1 % v2;
+            case SHL -> v1 << v2;
+            case SHR -> v1 >> v2;
+            case USHR -> v1 >>> v2;
+            case OR -> v1 | v2;
+            case AND -> v1 & v2;
+            case XOR -> v1 ^ v2;
+            case EQ -> ConstantPropagation.booleanToInt(v1 == v2);
+            case NE -> ConstantPropagation.booleanToInt(v1 != v2);
+            case GE -> ConstantPropagation.booleanToInt(v1 >= v2);
+            case GT -> ConstantPropagation.booleanToInt(v1 > v2);
+            case LE -> ConstantPropagation.booleanToInt(v1 <= v2);
+            case LT -> ConstantPropagation.booleanToInt(v1 < v2);
+            default -> throw new IllegalStateException("Unknown opcode: " + opcode);
+        };
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public CPFact newBoundaryFact(CFG<Stmt> cfg) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public boolean resetFact(CPFact fact) {
+        return analysis.resetFact(fact);
+    }
+
+    @Override
+    public void meetInto(CPFact fact, CPFact target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return analysis.needTransferEdge(edge);
+    }
+
+    @Override
+    public CPFact transferEdge(Edge<Stmt> edge, CPFact nodeFact) {
+        return analysis.transferEdge(edge, nodeFact);
+    }
+
+    @Override
+    public int getFactSize(CPFact fact) {
+        return analysis.getFactSize(fact);
+    }
+}
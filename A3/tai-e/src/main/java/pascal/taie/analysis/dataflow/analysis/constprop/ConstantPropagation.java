@@ -23,13 +23,20 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 public class ConstantPropagation extends
@@ -37,8 +44,20 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to compile the statements of each method into
+     * transfer descriptors before solving.
+     */
+    private final boolean compile;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        compile = getOptions().getBooleanOrDefault("compile", false);
+    }
+
+    @Override
+    protected DataflowAnalysis<Stmt, CPFact> specialize(CFG<Stmt> cfg) {
+        return compile ? new CompiledConstantPropagation(this, cfg) : this;
     }
 
     @Override
@@ -49,7 +68,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact cpFact = new CPFact();
+        CPFact cpFact = newInitialFact(cfg);
         List<Var> params = cfg.getIR().getParams();
         params.forEach(x -> {
             if (ConstantPropagation.canHoldInt(x)) {
@@ -60,17 +79,57 @@ public class ConstantPropagation extends
     }
 
     @Override
-    public CPFact newInitialFact() {
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new CPFact();
+        return new CPFact(cfg.getIR().getVars().size());
+    }
+
+    @Override
+    public boolean resetFact(CPFact fact) {
+        fact.clear();
+        return true;
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        fact.forEach((k, v) -> {
-            target.update(k, this.meetValue(target.get(k), v));
-        });
+        fact.meetInto(target);
+    }
+
+    /**
+     * Encodes each fact as the number of non-UNDEF variables, followed by
+     * the index, the kind and (for constants) the integer of each variable.
+     */
+    @Override
+    protected FactCodec<CPFact> getFactCodec() {
+        return new FactCodec<>() {
+            @Override
+            public void write(DataOutput out, CPFact fact) throws IOException {
+                out.writeInt(fact.size());
+                for (Var var : fact.keySet()) {
+                    Value value = fact.get(var);
+                    out.writeInt(var.getIndex());
+                    out.writeByte(value.isConstant() ? CPFact.CONSTANT : CPFact.NAC);
+                    if (value.isConstant()) {
+                        out.writeInt(value.getConstant());
+                    }
+                }
+            }
+
+            @Override
+            public void read(DataInput in, IR ir, CPFact fact) throws IOException {
+                for (int n = in.readInt(); n > 0; --n) {
+                    Var var = ir.getVar(in.readInt());
+                    fact.update(var, in.readByte() == CPFact.CONSTANT ?
+                            Value.makeConstant(in.readInt()) : Value.getNAC());
+                }
+            }
+        };
+    }
+
+    @Override
+    public int getFactSize(CPFact fact) {
+        return fact.size();
     }
 
     /**
@@ -108,43 +167,60 @@ public class ConstantPropagation extends
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-        CPFact oldFact = out.copy();
-
-        in.forEach(out::update);
-
-        stmt.getDef().ifPresent(lValue -> {
-            if (lValue instanceof Var && ConstantPropagation.canHoldInt((Var) lValue)) {
-                stmt.getUses().forEach(rValue -> {
-                    if (rValue instanceof BinaryExp) {
-                        Var left = ((BinaryExp) rValue).getOperand1();
-                        Var right = ((BinaryExp) rValue).getOperand2();
-
-                        if (ConstantPropagation.canHoldInt(left) && ConstantPropagation.canHoldInt(right)) {
-                            if (rValue instanceof ArithmeticExp || rValue instanceof ConditionExp || rValue instanceof ShiftExp || rValue instanceof BitwiseExp) {
-                                out.update((Var) lValue, ConstantPropagation.evaluate(rValue, in));
-                            }
-                        }
-                    } else if (rValue instanceof Var) {
-                        if (ConstantPropagation.canHoldInt((Var) rValue)) {
-                            // is int type
-                            Var rValueVar = (Var) rValue;
-                            if (rValueVar.isTempConst()) {
-                                out.update((Var) lValue, Value.makeConstant(((IntLiteral) rValueVar.getTempConstValue()).getValue()));
-                            } else {
-                                out.update((Var) lValue, in.get(rValueVar));
-                            }
-                        }
-                    } else if (rValue instanceof IntLiteral) {
-                        out.update((Var) lValue, Value.makeConstant(((IntLiteral) rValue).getValue()));
+        Var def = null;
+        Value defValue = null;
+        if (stmt.getDef().isPresent() &&
+                stmt.getDef().get() instanceof Var lValue &&
+                ConstantPropagation.canHoldInt(lValue)) {
+            def = lValue;
+            defValue = evaluateDef(stmt, in);
+        }
+        if (defValue == null) {
+            // the value of def (if any) flows from IN fact as other variables
+            return out.copyFrom(in);
+        }
+        // copy all values except def, so that the changes can be
+        // precisely detected without copying the old OUT fact
+        boolean changed = out.copyFrom(in, def);
+        return out.update(def, defValue) || changed;
+    }
+
+    /**
+     * Evaluates the value of the variable defined by given statement.
+     *
+     * @return the value of the defined variable, or null if the statement
+     * does not change the value of the variable.
+     */
+    @Nullable
+    static Value evaluateDef(Stmt stmt, CPFact in) {
+        Value value = null;
+        for (RValue rValue : stmt.getUses()) {
+            if (rValue instanceof BinaryExp) {
+                Var left = ((BinaryExp) rValue).getOperand1();
+                Var right = ((BinaryExp) rValue).getOperand2();
+
+                if (ConstantPropagation.canHoldInt(left) && ConstantPropagation.canHoldInt(right)) {
+                    if (rValue instanceof ArithmeticExp || rValue instanceof ConditionExp || rValue instanceof ShiftExp || rValue instanceof BitwiseExp) {
+                        value = ConstantPropagation.evaluate(rValue, in);
+                    }
+                }
+            } else if (rValue instanceof Var) {
+                if (ConstantPropagation.canHoldInt((Var) rValue)) {
+                    // is int type
+                    Var rValueVar = (Var) rValue;
+                    if (rValueVar.isTempConst()) {
+                        value = Value.makeConstant(((IntLiteral) rValueVar.getTempConstValue()).getValue());
                     } else {
-                        out.update((Var) lValue, Value.getNAC());
+                        value = in.get(rValueVar);
                     }
-                });
+                }
+            } else if (rValue instanceof IntLiteral) {
+                value = Value.makeConstant(((IntLiteral) rValue).getValue());
+            } else {
+                value = Value.getNAC();
             }
-        });
-
-        // 不等于 -> 需要重新计算
-        return !oldFact.equals(out);
+        }
+        return value;
     }
 
     /**
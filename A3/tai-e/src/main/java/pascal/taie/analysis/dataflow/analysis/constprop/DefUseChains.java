@@ -0,0 +1,341 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Def-use chains of the int variables in a method, which are used by
+ * {@link SparseConstantPropagation}. The definitions of int variables are
+ * numbered: the entry of CFG defines the parameters (as NAC), followed
+ * by the statements which define values of int variables, other
+ * definitions (if any) let the values flow through as is.
+ * <p>
+ * The definitions reaching each statement are computed once as bit sets,
+ * and the chain of each use is the intersection of the definitions
+ * reaching the use and the definitions of the used variable. The bit sets
+ * are dropped once the chains are built, as they take O(#stmts * #defs)
+ * space. The queries of the variables which are not used by a statement
+ * are answered by searching the CFG backward from the statement.
+ */
+class DefUseChains {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Number of the parameters which can hold integer values. The ids of
+     * their definitions (by the entry of CFG) are [0, nParams).
+     */
+    private final int nParams;
+
+    /**
+     * Statements of the definitions, indexed by definition ids.
+     */
+    private final Stmt[] defStmts;
+
+    /**
+     * Variables defined by the definitions, indexed by definition ids.
+     */
+    private final Var[] defVars;
+
+    /**
+     * Ids of the definitions of the statements, indexed by
+     * {@link Stmt#getIndex()}, or -1 if a statement is not a definition.
+     */
+    private final int[] stmtDefs;
+
+    /**
+     * Ids of the definitions of the variables, indexed by
+     * {@link Var#getIndex()}, or null if a variable has no definitions.
+     */
+    private final int[][] varDefs;
+
+    /**
+     * Variables which have definitions.
+     */
+    private final List<Var> definedVars;
+
+    /**
+     * Chains of the int variables used by the statements,
+     * indexed by {@link Stmt#getIndex()}.
+     */
+    private final UseChain[][] useChains;
+
+    DefUseChains(IR ir, CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        // the indexes of the statements in IR are [0, #stmts),
+        // and the entry and exit of CFG are #stmts and #stmts + 1
+        int nStmts = ir.getStmts().size() + 2;
+        List<Stmt> defStmts = new ArrayList<>();
+        List<Var> defVars = new ArrayList<>();
+        ir.getParams().forEach(param -> {
+            if (ConstantPropagation.canHoldInt(param)) {
+                defStmts.add(cfg.getEntry());
+                defVars.add(param);
+            }
+        });
+        nParams = defVars.size();
+        stmtDefs = new int[nStmts];
+        Arrays.fill(stmtDefs, -1);
+        CPFact empty = new CPFact();
+        for (Stmt stmt : cfg) {
+            if (stmt.getDef().orElse(null) instanceof Var def &&
+                    ConstantPropagation.canHoldInt(def) &&
+                    ConstantPropagation.evaluateDef(stmt, empty) != null) {
+                stmtDefs[stmt.getIndex()] = defVars.size();
+                defStmts.add(stmt);
+                defVars.add(def);
+            }
+        }
+        this.defStmts = defStmts.toArray(new Stmt[0]);
+        this.defVars = defVars.toArray(new Var[0]);
+        int nVars = ir.getVars().size();
+        int[] nVarDefs = new int[nVars];
+        for (Var var : this.defVars) {
+            ++nVarDefs[var.getIndex()];
+        }
+        varDefs = new int[nVars][];
+        definedVars = new ArrayList<>();
+        for (int d = this.defVars.length - 1; d >= 0; --d) {
+            int index = this.defVars[d].getIndex();
+            if (varDefs[index] == null) {
+                varDefs[index] = new int[nVarDefs[index]];
+                definedVars.add(this.defVars[d]);
+            }
+            varDefs[index][--nVarDefs[index]] = d;
+        }
+        BitSet[] reachingDefs = computeReachingDefs(cfg, nStmts);
+        useChains = new UseChain[nStmts][];
+        for (Stmt stmt : cfg) {
+            List<UseChain> chains = new ArrayList<>();
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var &&
+                        ConstantPropagation.canHoldInt(var)) {
+                    chains.add(new UseChain(var, collectReachingDefs(
+                            reachingDefs[stmt.getIndex()], var)));
+                }
+            }
+            useChains[stmt.getIndex()] = chains.toArray(new UseChain[0]);
+        }
+    }
+
+    /**
+     * Computes the definitions that reach each statement, i.e., there is
+     * a path from the definition to the statement without other definitions
+     * of the same variable.
+     *
+     * @return the reaching definitions, indexed by the statements.
+     */
+    private BitSet[] computeReachingDefs(CFG<Stmt> cfg, int nStmts) {
+        // the definitions killed by each definition,
+        // shared by the definitions of the same variable
+        BitSet[] kills = new BitSet[varDefs.length];
+        for (int[] defs : varDefs) {
+            if (defs != null) {
+                BitSet kill = new BitSet();
+                for (int d : defs) {
+                    kill.set(d);
+                }
+                kills[defVars[defs[0]].getIndex()] = kill;
+            }
+        }
+        BitSet[] in = new BitSet[nStmts];
+        BitSet[] out = new BitSet[nStmts];
+        Queue<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet(nStmts);
+        for (Stmt stmt : cfg) {
+            in[stmt.getIndex()] = new BitSet();
+            out[stmt.getIndex()] = new BitSet();
+            workList.add(stmt);
+            inWorkList.set(stmt.getIndex());
+        }
+        out[cfg.getEntry().getIndex()].set(0, nParams);
+        BitSet newOut = new BitSet();
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            int index = stmt.getIndex();
+            inWorkList.clear(index);
+            if (cfg.isEntry(stmt)) {
+                continue;
+            }
+            // IN and OUT sets only grow during the iteration
+            BitSet stmtIn = in[index];
+            for (Stmt pred : cfg.getPredsOf(stmt)) {
+                stmtIn.or(out[pred.getIndex()]);
+            }
+            newOut.clear();
+            newOut.or(stmtIn);
+            int d = stmtDefs[index];
+            if (d >= 0) {
+                newOut.andNot(kills[defVars[d].getIndex()]);
+                newOut.set(d);
+            }
+            if (!newOut.equals(out[index])) {
+                out[index].or(newOut);
+                for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                    if (!inWorkList.get(succ.getIndex())) {
+                        inWorkList.set(succ.getIndex());
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+        return in;
+    }
+
+    /**
+     * @return the number of the definitions.
+     */
+    int getNumberOfDefs() {
+        return defStmts.length;
+    }
+
+    /**
+     * @return the number of the parameters, whose definitions are
+     * [0, getNumberOfParams()).
+     */
+    int getNumberOfParams() {
+        return nParams;
+    }
+
+    Stmt getDefStmt(int def) {
+        return defStmts[def];
+    }
+
+    Var getDefVar(int def) {
+        return defVars[def];
+    }
+
+    /**
+     * @return the definition of given statement, or -1 if the statement
+     * is not a definition.
+     */
+    int getDef(Stmt stmt) {
+        return stmtDefs[stmt.getIndex()];
+    }
+
+    /**
+     * @return the chains of the int variables used by given statement.
+     */
+    UseChain[] getUseChains(Stmt stmt) {
+        return useChains[stmt.getIndex()];
+    }
+
+    /**
+     * @return the variables which have definitions. The returned list
+     * should not be modified.
+     */
+    List<Var> getDefinedVars() {
+        return definedVars;
+    }
+
+    /**
+     * @return the definitions of given variable that reach given statement.
+     * If the statement does not use the variable, the definitions are
+     * searched backward from the statement.
+     */
+    int[] getReachingDefs(Stmt stmt, Var var) {
+        for (UseChain chain : useChains[stmt.getIndex()]) {
+            if (chain.var() == var) {
+                return chain.sources();
+            }
+        }
+        return searchReachingDefs(stmt, var);
+    }
+
+    private int[] collectReachingDefs(BitSet reaching, Var var) {
+        int[] defs = varDefs[var.getIndex()];
+        if (defs == null) {
+            return EMPTY;
+        }
+        int n = 0;
+        int[] sources = new int[defs.length];
+        for (int d : defs) {
+            if (reaching.get(d)) {
+                sources[n++] = d;
+            }
+        }
+        return n == defs.length ? sources : Arrays.copyOf(sources, n);
+    }
+
+    /**
+     * Searches the definitions of given variable that reach given statement
+     * by traversing the CFG backward from the statement. The traversal
+     * stops at the definitions of the variable, thus it only visits
+     * the statements that the definitions reach.
+     */
+    private int[] searchReachingDefs(Stmt stmt, Var var) {
+        int[] defs = varDefs[var.getIndex()];
+        if (defs == null) {
+            return EMPTY;
+        }
+        BitSet reaching = new BitSet();
+        BitSet visited = new BitSet(stmtDefs.length);
+        Deque<Stmt> stack = new ArrayDeque<>(cfg.getPredsOf(stmt));
+        while (!stack.isEmpty()) {
+            Stmt current = stack.pop();
+            int index = current.getIndex();
+            if (visited.get(index)) {
+                continue;
+            }
+            visited.set(index);
+            int d = stmtDefs[index];
+            if (d >= 0 && defVars[d] == var) {
+                reaching.set(d);
+            } else if (cfg.isEntry(current)) {
+                // the ids in varDefs are ascending, thus the parameter
+                // (if any) is the first definition of the variable
+                if (defs[0] < nParams) {
+                    reaching.set(defs[0]);
+                }
+            } else {
+                for (Stmt pred : cfg.getPredsOf(current)) {
+                    if (!visited.get(pred.getIndex())) {
+                        stack.push(pred);
+                    }
+                }
+            }
+        }
+        return reaching.stream().toArray();
+    }
+
+    /**
+     * The definitions of a variable that reach a use of the variable.
+     */
+    record UseChain(Var var, int[] sources) {
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Result of {@link SparseConstantPropagation}. This result keeps the
+ * values of the definitions in the method and the def-use chains, and
+ * the facts of statements, which are the same as the ones given by
+ * {@link ConstantPropagation}, are computed on demand by meeting the
+ * values of the reaching definitions. Thus, querying the value of
+ * a variable used by a statement (by {@link #getInValue(Stmt, Var)})
+ * only visits the definitions in the def-use chain, while building a whole
+ * fact of a statement searches the reaching definitions of every variable
+ * in the CFG (see {@link DefUseChains#getReachingDefs(Stmt, Var)}).
+ * The clients which need only a few values should prefer
+ * {@link #getInValue(Stmt, Var)}.
+ */
+public class SparseCPResult implements NodeResult<Stmt, CPFact> {
+
+    private final CFG<Stmt> cfg;
+
+    private final DefUseChains chains;
+
+    /**
+     * Values of the definitions, indexed by definition ids.
+     */
+    private final Value[] defValues;
+
+    SparseCPResult(CFG<Stmt> cfg, DefUseChains chains, Value[] defValues) {
+        this.cfg = cfg;
+        this.chains = chains;
+        this.defValues = defValues;
+    }
+
+    /**
+     * @return the value of given variable that flows into given statement.
+     */
+    public Value getInValue(Stmt stmt, Var var) {
+        Value value = Value.getUndef();
+        for (int d : chains.getReachingDefs(stmt, var)) {
+            value = meetValue(value, defValues[d]);
+        }
+        return value;
+    }
+
+    @Override
+    public CPFact getInFact(Stmt stmt) {
+        CPFact fact = new CPFact();
+        for (Var var : chains.getDefinedVars()) {
+            fact.update(var, getInValue(stmt, var));
+        }
+        return fact;
+    }
+
+    @Override
+    public CPFact getOutFact(Stmt stmt) {
+        CPFact fact = getInFact(stmt);
+        if (cfg.isEntry(stmt)) {
+            for (int d = 0; d < chains.getNumberOfParams(); ++d) {
+                fact.update(chains.getDefVar(d), defValues[d]);
+            }
+        }
+        int d = chains.getDef(stmt);
+        if (d >= 0) {
+            fact.update(chains.getDefVar(d), defValues[d]);
+        }
+        return fact;
+    }
+
+    static Value meetValue(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.isConstant() && v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+}
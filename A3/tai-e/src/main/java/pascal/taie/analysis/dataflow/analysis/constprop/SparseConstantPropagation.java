@@ -0,0 +1,149 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.DefUseChains.UseChain;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Queue;
+
+/**
+ * Sparse constant propagation, which gives the same results as
+ * {@link ConstantPropagation}, but propagates values along def-use chains
+ * (see {@link DefUseChains}) instead of CFG edges. Only the values
+ * of definitions are computed (and kept after the analysis), instead of
+ * the values of all variables at each statement.
+ *
+ * @see SparseCPResult
+ */
+public class SparseConstantPropagation extends MethodAnalysis {
+
+    public static final String ID = "sparse-constprop";
+
+    public SparseConstantPropagation(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public SparseCPResult analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DefUseChains chains = new DefUseChains(ir, cfg);
+        return new SparseCPResult(cfg, chains, solve(chains));
+    }
+
+    /**
+     * Computes the values of all definitions by propagating them along
+     * the def-use chains until reaching a fixed point.
+     *
+     * @return the values of the definitions, indexed by the definitions.
+     */
+    private static Value[] solve(DefUseChains chains) {
+        int nDefs = chains.getNumberOfDefs();
+        int nParams = chains.getNumberOfParams();
+        int[][] users = computeUsers(chains);
+        // propagate values along the chains, the parameters are NAC
+        Value[] defValues = new Value[nDefs];
+        Arrays.fill(defValues, 0, nParams, Value.getNAC());
+        Arrays.fill(defValues, nParams, nDefs, Value.getUndef());
+        Queue<Integer> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet(nDefs);
+        for (int d = nParams; d < nDefs; ++d) { // follow CFG iteration order
+            workList.add(d);
+            inWorkList.set(d);
+        }
+        CPFact in = new CPFact();
+        while (!workList.isEmpty()) {
+            int d = workList.poll();
+            inWorkList.clear(d);
+            in.clear();
+            Stmt stmt = chains.getDefStmt(d);
+            for (UseChain chain : chains.getUseChains(stmt)) {
+                Value value = Value.getUndef();
+                for (int source : chain.sources()) {
+                    value = SparseCPResult.meetValue(value, defValues[source]);
+                }
+                in.update(chain.var(), value);
+            }
+            Value value = ConstantPropagation.evaluateDef(stmt, in);
+            if (!value.equals(defValues[d])) {
+                defValues[d] = value;
+                for (int user : users[d]) {
+                    if (!inWorkList.get(user)) {
+                        inWorkList.set(user);
+                        workList.add(user);
+                    }
+                }
+            }
+        }
+        return defValues;
+    }
+
+    /**
+     * @return the definitions which use each definition,
+     * indexed by the definitions.
+     */
+    private static int[][] computeUsers(DefUseChains chains) {
+        int nDefs = chains.getNumberOfDefs();
+        int nParams = chains.getNumberOfParams();
+        // the last user counted for each definition, which skips
+        // the duplicate users, e.g., x is used twice by y = x + x
+        int[] lastUser = new int[nDefs];
+        int[] nUsers = new int[nDefs];
+        Arrays.fill(lastUser, -1);
+        for (int d = nParams; d < nDefs; ++d) {
+            for (UseChain chain : chains.getUseChains(chains.getDefStmt(d))) {
+                for (int source : chain.sources()) {
+                    if (lastUser[source] != d) {
+                        lastUser[source] = d;
+                        ++nUsers[source];
+                    }
+                }
+            }
+        }
+        int[][] users = new int[nDefs][];
+        for (int d = 0; d < nDefs; ++d) {
+            users[d] = new int[nUsers[d]];
+            nUsers[d] = 0;
+        }
+        Arrays.fill(lastUser, -1);
+        for (int d = nParams; d < nDefs; ++d) {
+            for (UseChain chain : chains.getUseChains(chains.getDefStmt(d))) {
+                for (int source : chain.sources()) {
+                    if (lastUser[source] != d) {
+                        lastUser[source] = d;
+                        users[source][nUsers[source]++] = d;
+                    }
+                }
+            }
+        }
+        return users;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.List;
+
+/**
+ * Set-like data-flow facts backed by dense bit sets, which is suitable for
+ * the facts whose elements are drawn from a small, indexed universe, e.g.,
+ * the variables of a method. Union, intersection, equality test and copy
+ * of two facts of the same universe are performed word by word.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    /**
+     * Creates an empty fact.
+     *
+     * @param universe all elements that may be contained in this fact,
+     *                 where each element is located at its index.
+     *                 Facts created from the same universe list can
+     *                 be operated word by word.
+     */
+    public BitSetFact(List<E> universe) {
+        super(new IndexableBitSet<>(universe));
+    }
+
+    private BitSetFact(IndexableBitSet<E> set) {
+        super(set);
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(((IndexableBitSet<E>) set).copy());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts data-flow facts from/to binary form, which is used to
+ * cache the results of data-flow analyses on disk.
+ *
+ * @param <Fact> type of data-flow facts
+ * @see pascal.taie.analysis.MethodSummaryCache
+ */
+public interface FactCodec<Fact> {
+
+    /**
+     * Writes given fact. The variables in the fact should be
+     * written as their indexes in the IR.
+     */
+    void write(DataOutput out, Fact fact) throws IOException;
+
+    /**
+     * Reads a fact into given empty fact.
+     *
+     * @param ir   IR of the method that the fact belongs to
+     * @param fact the fact to be filled
+     */
+    void read(DataInput in, IR ir, Fact fact) throws IOException;
+}
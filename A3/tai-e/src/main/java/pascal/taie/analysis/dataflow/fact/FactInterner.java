@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Canonicalizes equal data-flow facts into a single shared instance.
+ * <p>
+ * In straight-line code, the facts of adjacent nodes are often equal,
+ * thus interning the facts of a solved {@link DataflowResult} reduces
+ * the memory retained by the result. As the facts are shared among
+ * nodes after interning, they must be treated as read-only.
+ * <p>
+ * The pool is scoped to an interner, so that the canonical facts are
+ * released together with the results that refer to them.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class FactInterner<Fact> {
+
+    private final Map<Fact, Fact> pool = Maps.newMap();
+
+    /**
+     * @return the canonical instance which equals to given fact.
+     */
+    public Fact intern(Fact fact) {
+        return pool.computeIfAbsent(fact, f -> f);
+    }
+
+    /**
+     * Replaces the in/out facts of given nodes in the result by
+     * their canonical instances.
+     */
+    public <Node> void internAll(Iterable<Node> nodes,
+                                 DataflowResult<Node, Fact> result) {
+        for (Node node : nodes) {
+            Fact inFact = result.getInFact(node);
+            if (inFact != null) {
+                result.setInFact(node, intern(inFact));
+            }
+            Fact outFact = result.getOutFact(node);
+            if (outFact != null) {
+                result.setOutFact(node, intern(outFact));
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct facts in the pool.
+     */
+    public int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Dense bit set of {@link Indexable} elements. The elements that can be
+ * contained in the set (i.e., the universe) are given by a list, where
+ * each element is located at the position of its index. Objects that are
+ * not in the universe are never contained in the set.
+ * <p>
+ * Bulk operations with other bit sets of the same universe
+ * ({@link #addAll}, {@link #retainAll}, {@link #removeAll} and
+ * {@link #equals}) are performed word by word.
+ *
+ * @param <E> type of elements
+ */
+class IndexableBitSet<E> extends AbstractSet<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final List<E> universe;
+
+    private final long[] words;
+
+    IndexableBitSet(List<E> universe) {
+        this.universe = universe;
+        this.words = new long[wordIndex(universe.size() - 1) + 1];
+    }
+
+    private IndexableBitSet(IndexableBitSet<E> set) {
+        this.universe = set.universe;
+        this.words = set.words.clone();
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return the index of given object if it is an element
+     * of the universe, otherwise -1.
+     */
+    private int indexOf(Object o) {
+        if (o instanceof Indexable e) {
+            int index = e.getIndex();
+            if (index >= 0 && index < universe.size()
+                    && universe.get(index) == o) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if other set is a bit set of the same universe.
+     */
+    private boolean isCompatible(Object o) {
+        return o instanceof IndexableBitSet<?> other
+                && other.universe == universe;
+    }
+
+    IndexableBitSet<E> copy() {
+        return new IndexableBitSet<>(this);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int index = indexOf(o);
+        return index != -1 &&
+                (words[wordIndex(index)] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = indexOf(e);
+        if (index == -1) {
+            throw new IllegalArgumentException(
+                    e + " is not in the universe of this set");
+        }
+        int i = wordIndex(index);
+        long old = words[i];
+        words[i] |= 1L << index;
+        return words[i] != old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index == -1) {
+            return false;
+        }
+        int i = wordIndex(index);
+        long old = words[i];
+        words[i] &= ~(1L << index);
+        return words[i] != old;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (!isCompatible(c)) {
+            return super.addAll(c);
+        }
+        long[] otherWords = ((IndexableBitSet<?>) c).words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] |= otherWords[i];
+            changed |= words[i] != old;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (!isCompatible(c)) {
+            return super.retainAll(c);
+        }
+        long[] otherWords = ((IndexableBitSet<?>) c).words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] &= otherWords[i];
+            changed |= words[i] != old;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (!isCompatible(c)) {
+            return super.removeAll(c);
+        }
+        long[] otherWords = ((IndexableBitSet<?>) c).words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] &= ~otherWords[i];
+            changed |= words[i] != old;
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return index of the first set bit that occurs on or after
+     * the specified index, or -1 if there is no such bit.
+     */
+    private int nextSetBit(int fromIndex) {
+        int i = wordIndex(fromIndex);
+        if (i >= words.length) {
+            return -1;
+        }
+        long word = words[i] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (i << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++i == words.length) {
+                return -1;
+            }
+            word = words[i];
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+
+            private int next = nextSetBit(0);
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public E next() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = nextSetBit(next + 1);
+                return universe.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == -1) {
+                    throw new IllegalStateException();
+                }
+                words[wordIndex(last)] &= ~(1L << last);
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (isCompatible(o)) {
+            return Arrays.equals(words, ((IndexableBitSet<?>) o).words);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), as bit sets may be
+        // compared with other kinds of sets
+        return super.hashCode();
+    }
+}
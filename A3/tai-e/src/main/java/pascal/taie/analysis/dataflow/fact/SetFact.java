@@ -48,6 +48,14 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Constructs a new fact which is backed by (instead of copying)
+     * the given bit set.
+     */
+    SetFact(IndexableBitSet<E> set) {
+        this.set = set;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -83,6 +91,17 @@ public class SetFact<E> {
         return set.removeIf(filter);
     }
 
+    /**
+     * Removes the elements of other fact from this fact. For the facts
+     * of the same universe (see {@link BitSetFact}), this is performed
+     * word by word.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean removeAll(SetFact<E> other) {
+        return set.removeAll(other.set);
+    }
+
     /**
      * Unions other fact into this fact.
      *
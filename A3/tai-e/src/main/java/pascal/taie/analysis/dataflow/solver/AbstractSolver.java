@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Base class for data-flow analysis solver which solves the problem
+ * on the nodes of the CFG, and provides common functionalities for
+ * different solver implementations.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+abstract class AbstractSolver<Node, Fact> implements Solver<Node, Fact> {
+
+    protected final DataflowAnalysis<Node, Fact> analysis;
+
+    protected AbstractSolver(DataflowAnalysis<Node, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        DataflowResult<Node, Fact> result = initialize(cfg);
+        doSolve(cfg, result);
+        return result;
+    }
+
+    /**
+     * Creates and initializes a new data-flow result for given CFG.
+     *
+     * @return the initialized data-flow result
+     */
+    private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
+        DataflowResult<Node, Fact> result = newResult(cfg);
+        if (analysis.isForward()) {
+            initializeForward(cfg, result);
+        } else {
+            initializeBackward(cfg, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return a new empty data-flow result for given CFG. For the CFGs of
+     * statements, the facts are stored in arrays indexed by the statements.
+     */
+    static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            // the indexes of the statements in IR are [0, #stmts),
+            // and the entry and exit of CFG are #stmts and #stmts + 1
+            return new IndexedDataflowResult<>(
+                    node -> ((Stmt) node).getIndex(),
+                    cfg.getIR().getStmts().size() + 2);
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        // TODO - finish me
+        Node entry = cfg.getEntry();
+        result.setOutFact(entry, analysis.newBoundaryFact(cfg));
+
+        for (Node node : cfg) {
+            if (!node.equals(entry)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        // TODO - finish me
+        Node exit = cfg.getExit();
+        result.setInFact(exit, analysis.newBoundaryFact(cfg));
+
+        for (Node node : cfg) {
+            if (!node.equals(exit)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    /**
+     * Solves the data-flow problem for given CFG.
+     */
+    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        if (analysis.isForward()) {
+            doSolveForward(cfg, result);
+        } else {
+            doSolveBackward(cfg, result);
+        }
+    }
+
+    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+}
@@ -0,0 +1,196 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.ConfigException;
+
+import java.util.List;
+
+/**
+ * Lifts a node-level data-flow analysis to the basic blocks of a CFG.
+ * The transfer function of a block composes the transfer functions
+ * of its nodes, and only the facts at the block boundaries are kept.
+ * The transfer of a block edge is delegated to the transfer of its
+ * underlying node edge, thus the analysis must not transfer facts along
+ * the edges inside the blocks.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+class BlockAnalysis<Node, Fact> implements DataflowAnalysis<BasicBlock<Node>, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    /**
+     * The node-level CFG, from which the facts are created.
+     */
+    private final CFG<Node> cfg;
+
+    private final BlockCFG<Node> blockCFG;
+
+    /**
+     * Whether the analysis supports resetting facts, so that the facts
+     * between the nodes in a block are held in the two scratch facts,
+     * which are used alternately and reused by the transfers of all blocks.
+     */
+    private final boolean reuseFacts;
+
+    private final Fact scratch0;
+
+    private final Fact scratch1;
+
+    /**
+     * @throws ConfigException if the analysis transfers facts along
+     *                         an edge inside a block of given CFG.
+     */
+    BlockAnalysis(DataflowAnalysis<Node, Fact> analysis, BlockCFG<Node> blockCFG) {
+        this.analysis = analysis;
+        this.cfg = blockCFG.getCFG();
+        this.blockCFG = blockCFG;
+        checkInnerEdges();
+        this.scratch0 = analysis.newInitialFact(cfg);
+        this.reuseFacts = analysis.resetFact(scratch0);
+        this.scratch1 = reuseFacts ? analysis.newInitialFact(cfg) : null;
+    }
+
+    private void checkInnerEdges() {
+        for (BasicBlock<Node> block : blockCFG.getNodes()) {
+            List<Node> nodes = block.getNodes();
+            for (int i = 0; i < nodes.size() - 1; ++i) {
+                for (Edge<Node> edge : cfg.getOutEdgesOf(nodes.get(i))) {
+                    if (analysis.needTransferEdge(edge)) {
+                        throw new ConfigException("Cannot solve " + analysis +
+                                " on basic blocks, as it transfers facts along " +
+                                edge + " inside block " + block);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a fact for the i-th transfer inside a block, which is one of
+     * the scratch facts, or a new fact if the facts cannot be reused.
+     */
+    private Fact newIntermediateFact(int i) {
+        if (!reuseFacts) {
+            return analysis.newInitialFact(cfg);
+        }
+        Fact fact = (i & 1) == 0 ? scratch0 : scratch1;
+        analysis.resetFact(fact);
+        return fact;
+    }
+
+    DataflowAnalysis<Node, Fact> getAnalysis() {
+        return analysis;
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<BasicBlock<Node>> blockCFG) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<BasicBlock<Node>> blockCFG) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(BasicBlock<Node> block, Fact in, Fact out) {
+        List<Node> nodes = block.getNodes();
+        int last = nodes.size() - 1;
+        if (analysis.isForward()) {
+            Fact fact = in;
+            for (int i = 0; i < last; ++i) {
+                Fact next = newIntermediateFact(i);
+                analysis.transferNode(nodes.get(i), fact, next);
+                fact = next;
+            }
+            return analysis.transferNode(nodes.get(last), fact, out);
+        } else {
+            Fact fact = out;
+            for (int i = last; i > 0; --i) {
+                Fact prev = newIntermediateFact(i);
+                analysis.transferNode(nodes.get(i), prev, fact);
+                fact = prev;
+            }
+            return analysis.transferNode(nodes.get(0), in, fact);
+        }
+    }
+
+    /**
+     * Recomputes the in/out facts of the nodes in given block from
+     * the facts at the block boundaries. The out (in) fact of a node is
+     * shared as the in (out) fact of its successor (predecessor) in the
+     * block for forward (backward) analyses.
+     *
+     * @param inFacts  receives the in facts of the nodes in the block
+     * @param outFacts receives the out facts of the nodes in the block
+     */
+    @SuppressWarnings("unchecked")
+    void replay(BasicBlock<Node> block, Fact in, Fact out,
+                Object[] inFacts, Object[] outFacts) {
+        List<Node> nodes = block.getNodes();
+        int last = nodes.size() - 1;
+        inFacts[0] = in;
+        outFacts[last] = out;
+        if (analysis.isForward()) {
+            for (int i = 0; i < last; ++i) {
+                Fact next = analysis.newInitialFact(cfg);
+                analysis.transferNode(nodes.get(i), (Fact) inFacts[i], next);
+                outFacts[i] = inFacts[i + 1] = next;
+            }
+        } else {
+            for (int i = last; i > 0; --i) {
+                Fact prev = analysis.newInitialFact(cfg);
+                analysis.transferNode(nodes.get(i), prev, (Fact) outFacts[i]);
+                inFacts[i] = outFacts[i - 1] = prev;
+            }
+        }
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<BasicBlock<Node>> edge) {
+        return analysis.needTransferEdge(blockCFG.getNodeEdge(edge));
+    }
+
+    @Override
+    public Fact transferEdge(Edge<BasicBlock<Node>> edge, Fact nodeFact) {
+        return analysis.transferEdge(blockCFG.getNodeEdge(edge), nodeFact);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+
+/**
+ * A {@link DataflowResult} which keeps the facts only at the boundaries
+ * of basic blocks. The facts of the nodes inside a block are recomputed
+ * on demand, and the ones of the most recently queried block are cached,
+ * as the clients usually query the nodes of a block one after another.
+ * <p>
+ * The facts of this result cannot be set by clients.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final BlockCFG<Node> cfg;
+
+    private final BlockAnalysis<Node, Fact> analysis;
+
+    private final DataflowResult<BasicBlock<Node>, Fact> blockResult;
+
+    /**
+     * Facts of the nodes in the most recently queried block.
+     */
+    private volatile BlockFacts<Node> cache;
+
+    BlockDataflowResult(BlockCFG<Node> cfg, BlockAnalysis<Node, Fact> analysis,
+                        DataflowResult<BasicBlock<Node>, Fact> blockResult) {
+        this.cfg = cfg;
+        this.analysis = analysis;
+        this.blockResult = blockResult;
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        BasicBlock<Node> block = cfg.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        if (block.getFirst().equals(node)) {
+            return blockResult.getInFact(block);
+        }
+        return getFact(block, node, true);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        BasicBlock<Node> block = cfg.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        if (block.getLast().equals(node)) {
+            return blockResult.getOutFact(block);
+        }
+        return getFact(block, node, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getFact(BasicBlock<Node> block, Node node, boolean in) {
+        BlockFacts<Node> facts = cache;
+        if (facts == null || facts.block != block) {
+            facts = new BlockFacts<>(block);
+            analysis.replay(block, blockResult.getInFact(block),
+                    blockResult.getOutFact(block), facts.inFacts, facts.outFacts);
+            cache = facts;
+        }
+        int i = cfg.getIndexInBlock(node);
+        return (Fact) (in ? facts.inFacts[i] : facts.outFacts[i]);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Interns the facts at the block boundaries.
+     */
+    public void internFacts(FactInterner<Fact> interner) {
+        interner.internAll(cfg, blockResult);
+        cache = null;
+    }
+
+    private static class BlockFacts<Node> {
+
+        private final BasicBlock<Node> block;
+
+        private final Object[] inFacts;
+
+        private final Object[] outFacts;
+
+        private BlockFacts(BasicBlock<Node> block) {
+            this.block = block;
+            this.inFacts = new Object[block.size()];
+            this.outFacts = new Object[block.size()];
+        }
+    }
+}
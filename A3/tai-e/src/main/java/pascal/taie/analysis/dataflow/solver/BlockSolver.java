@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import javax.annotation.Nullable;
+
+/**
+ * Solver which solves the data-flow problem on the basic blocks of
+ * the CFG, so that the work-list holds blocks instead of nodes, and
+ * the facts are stored only at the block boundaries. The blocks are
+ * visited in depth-first order unless another strategy is given.
+ * The facts of the other nodes are computed on demand by the returned
+ * {@link BlockDataflowResult}.
+ */
+class BlockSolver<Node, Fact> implements Solver<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    /**
+     * Strategy of the block-level work-list, see {@link WorkList#make}.
+     */
+    private final String strategy;
+
+    BlockSolver(DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
+        this.analysis = analysis;
+        this.strategy = strategy != null ? strategy : "rpo";
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        BlockCFG<Node> blockCFG = new BlockCFG<>(cfg);
+        BlockAnalysis<Node, Fact> blockAnalysis = new BlockAnalysis<>(analysis, blockCFG);
+        DataflowResult<BasicBlock<Node>, Fact> blockResult =
+                new WorkListSolver<>(blockAnalysis, strategy).solve(blockCFG);
+        return new BlockDataflowResult<>(blockCFG, blockAnalysis, blockResult);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Solver which solves several data-flow analyses of the same direction
+ * in lockstep, i.e., the analyses share one work-list and one traversal
+ * of the CFG, and each node holds a tuple of the facts of the analyses.
+ * After solving, the tuples are split into a result for each analysis.
+ * A single analysis is solved directly, without the tuples.
+ */
+public class CoSolver {
+
+    @Nullable
+    private final String kind;
+
+    @Nullable
+    private final String strategy;
+
+    /**
+     * @param kind     kind of the underlying solver,
+     *                 see {@link Solver#makeSolver(DataflowAnalysis, String, String)}
+     * @param strategy strategy of the work-list, see {@link WorkList#make}
+     */
+    public CoSolver(@Nullable String kind, @Nullable String strategy) {
+        this.kind = kind;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Solves given analyses on given CFG.
+     *
+     * @return the results of the analyses, in the order of the analyses.
+     * @throws IllegalArgumentException if the analyses are empty or
+     *                                  of different directions
+     */
+    public <Node> List<DataflowResult<Node, ?>> solve(
+            CFG<Node> cfg, List<? extends DataflowAnalysis<Node, ?>> analyses) {
+        if (analyses.size() == 1) {
+            return List.of(solveOne(cfg, analyses.get(0)));
+        }
+        ProductAnalysis<Node> product = new ProductAnalysis<>(analyses);
+        DataflowResult<Node, Object[]> result = Solver.makeSolver(
+                product, kind, strategy).solve(cfg);
+        List<DataflowResult<Node, Object>> results = new ArrayList<>(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            results.add(AbstractSolver.newResult(cfg));
+        }
+        for (Node node : cfg) {
+            Object[] in = result.getInFact(node);
+            Object[] out = result.getOutFact(node);
+            for (int i = 0; i < results.size(); ++i) {
+                // boundary nodes may lack the fact on the outer side
+                if (in != null) {
+                    results.get(i).setInFact(node, in[i]);
+                }
+                if (out != null) {
+                    results.get(i).setOutFact(node, out[i]);
+                }
+            }
+        }
+        return List.copyOf(results);
+    }
+
+    private <Node, Fact> DataflowResult<Node, Fact> solveOne(
+            CFG<Node> cfg, DataflowAnalysis<Node, Fact> analysis) {
+        return Solver.makeSolver(analysis, kind, strategy).solve(cfg);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Decorates a data-flow analysis to count the calls of the solver
+ * to the analysis and to its work-list. The solvers only count the
+ * calls when the analysis is decorated by this class, so that
+ * collecting metrics costs nothing if it is disabled.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ * @see SolverMetrics
+ */
+public class InstrumentedAnalysis<Node, Fact> implements DataflowAnalysis<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final Map<Node, Integer> visits = Maps.newMap();
+
+    private long transfers;
+
+    private long meets;
+
+    private long pushes;
+
+    private long pops;
+
+    public InstrumentedAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * @return the instrumented analysis decorated by given analysis
+     * (possibly lifted to basic blocks), or null if it is not instrumented.
+     */
+    @Nullable
+    static InstrumentedAnalysis<?, ?> find(DataflowAnalysis<?, ?> analysis) {
+        if (analysis instanceof InstrumentedAnalysis<?, ?> instrumented) {
+            return instrumented;
+        } else if (analysis instanceof BlockAnalysis<?, ?> blockAnalysis) {
+            return find(blockAnalysis.getAnalysis());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return a work-list which counts the pushes and pops on given work-list.
+     */
+    <N> WorkList<N> count(WorkList<N> workList) {
+        return new WorkList<>() {
+            @Override
+            public void add(N node) {
+                ++pushes;
+                workList.add(node);
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return workList.isEmpty();
+            }
+
+            @Override
+            public N poll() {
+                ++pops;
+                return workList.poll();
+            }
+        };
+    }
+
+    /**
+     * Creates the metrics of solving given CFG. The counters are taken
+     * before computing the sizes of the facts, which may trigger
+     * transfers in on-demand results.
+     *
+     * @param id     ID of the analysis
+     * @param result result of solving the CFG with this analysis
+     * @param nanos  wall time of solving
+     */
+    public SolverMetrics getMetrics(String id, CFG<Node> cfg,
+                                    NodeResult<Node, Fact> result, long nanos) {
+        long transfers = this.transfers, meets = this.meets;
+        long pushes = this.pushes, pops = this.pops;
+        int iterations = visits.values()
+                .stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+        long totalFactSize = 0;
+        int maxFactSize = 0;
+        for (Node node : cfg) {
+            Fact fact = isForward() ?
+                    result.getOutFact(node) : result.getInFact(node);
+            int size = fact != null ? analysis.getFactSize(fact) : 0;
+            if (size < 0) {
+                totalFactSize = maxFactSize = -1;
+                break;
+            }
+            totalFactSize += size;
+            maxFactSize = Math.max(maxFactSize, size);
+        }
+        return new SolverMetrics(id, String.valueOf(cfg.getMethod()),
+                cfg.getNumberOfNodes(), transfers, meets, pushes, pops,
+                iterations, totalFactSize, maxFactSize, nanos);
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<Node> cfg) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<Node> cfg) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public boolean resetFact(Fact fact) {
+        return analysis.resetFact(fact);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        ++meets;
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        ++transfers;
+        visits.merge(node, 1, Integer::sum);
+        return analysis.transferNode(node, in, out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        return analysis.needTransferEdge(edge);
+    }
+
+    @Override
+    public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+        return analysis.transferEdge(edge, nodeFact);
+    }
+
+    @Override
+    public int getFactSize(Fact fact) {
+        return analysis.getFactSize(fact);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.List;
+
+/**
+ * Product of several data-flow analyses of the same direction, whose
+ * facts are the tuples of the facts of the component analyses.
+ * All operations are performed on the components element-wise.
+ *
+ * @param <Node> type of CFG nodes
+ * @see CoSolver
+ */
+class ProductAnalysis<Node> implements DataflowAnalysis<Node, Object[]> {
+
+    private final DataflowAnalysis<Node, Object>[] analyses;
+
+    private final boolean isForward;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ProductAnalysis(List<? extends DataflowAnalysis<Node, ?>> analyses) {
+        if (analyses.isEmpty()) {
+            throw new IllegalArgumentException("No analyses to be solved");
+        }
+        this.analyses = analyses.toArray(new DataflowAnalysis[0]);
+        isForward = this.analyses[0].isForward();
+        for (DataflowAnalysis<Node, Object> analysis : this.analyses) {
+            if (analysis.isForward() != isForward) {
+                throw new IllegalArgumentException(
+                        "Analyses of different directions: " + analyses);
+            }
+        }
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public Object[] newBoundaryFact(CFG<Node> cfg) {
+        Object[] fact = new Object[analyses.length];
+        for (int i = 0; i < analyses.length; ++i) {
+            fact[i] = analyses[i].newBoundaryFact(cfg);
+        }
+        return fact;
+    }
+
+    @Override
+    public Object[] newInitialFact(CFG<Node> cfg) {
+        Object[] fact = new Object[analyses.length];
+        for (int i = 0; i < analyses.length; ++i) {
+            fact[i] = analyses[i].newInitialFact(cfg);
+        }
+        return fact;
+    }
+
+    @Override
+    public boolean resetFact(Object[] fact) {
+        for (int i = 0; i < analyses.length; ++i) {
+            if (!analyses[i].resetFact(fact[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void meetInto(Object[] fact, Object[] target) {
+        for (int i = 0; i < analyses.length; ++i) {
+            analyses[i].meetInto(fact[i], target[i]);
+        }
+    }
+
+    @Override
+    public boolean transferNode(Node node, Object[] in, Object[] out) {
+        // every component must be transferred, thus no short-circuit
+        boolean changed = false;
+        for (int i = 0; i < analyses.length; ++i) {
+            changed |= analyses[i].transferNode(node, in[i], out[i]);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            if (analysis.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object[] transferEdge(Edge<Node> edge, Object[] nodeFact) {
+        // the facts of the components without edge transfer are shared,
+        // as the solver only meets the edge fact into other facts
+        Object[] fact = new Object[analyses.length];
+        for (int i = 0; i < analyses.length; ++i) {
+            fact[i] = analyses[i].needTransferEdge(edge) ?
+                    analyses[i].transferEdge(edge, nodeFact[i]) : nodeFact[i];
+        }
+        return fact;
+    }
+
+    @Override
+    public int getFactSize(Object[] fact) {
+        int size = 0;
+        for (int i = 0; i < analyses.length; ++i) {
+            int s = analyses[i].getFactSize(fact[i]);
+            if (s < 0) {
+                return -1;
+            }
+            size += s;
+        }
+        return size;
+    }
+}
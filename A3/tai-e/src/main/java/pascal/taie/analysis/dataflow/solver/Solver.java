@@ -25,95 +25,86 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+import java.util.Set;
 
 /**
- * Base class for data-flow analysis solver, which provides common
- * functionalities for different solver implementations.
+ * Interface of data-flow analysis solver.
  *
  * @param <Node> type of CFG nodes
  * @param <Fact> type of data-flow facts
  */
-public abstract class Solver<Node, Fact> {
-
-    protected final DataflowAnalysis<Node, Fact> analysis;
-
-    protected Solver(DataflowAnalysis<Node, Fact> analysis) {
-        this.analysis = analysis;
-    }
+public interface Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
      */
-    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+    static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return new WorkListSolver<>(analysis, null);
     }
 
     /**
-     * Starts this solver on the given CFG.
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
      *
-     * @param cfg control-flow graph where the analysis is performed on
-     * @return the analysis result
+     * @see #makeSolver(DataflowAnalysis, String, String)
      */
-    public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
-        return result;
+    static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind) {
+        return makeSolver(analysis, kind, null);
     }
 
     /**
-     * Creates and initializes a new data-flow result for given CFG.
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
      *
-     * @return the initialized data-flow result
+     * @param kind     kind of the solver, which can be "worklist" (default),
+     *                 "priority" (work-list solver which visits nodes in
+     *                 reverse postorder for forward analyses, and postorder
+     *                 for backward analyses), or "block" (solves on basic
+     *                 blocks, see {@link BlockSolver}).
+     *                 If kind is null, the default solver is created.
+     * @param strategy strategy of the work-list, see {@link WorkList#make}.
+     *                 If strategy is null, the default strategy of the
+     *                 solver is used.
+     * @throws ConfigException if kind or strategy is unknown
      */
-    private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
-        if (analysis.isForward()) {
-            initializeForward(cfg, result);
-        } else {
-            initializeBackward(cfg, result);
-        }
-        return result;
-    }
-
-    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
-        Node entry = cfg.getEntry();
-        result.setOutFact(entry, analysis.newBoundaryFact(cfg));
-
-        for (Node node : cfg) {
-            if (!node.equals(entry)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
-            }
-        }
-    }
-
-    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
-        Node exit = cfg.getExit();
-        result.setInFact(exit, analysis.newBoundaryFact(cfg));
-
-        for (Node node : cfg) {
-            if (!node.equals(exit)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
-            }
+    static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis,
+            @Nullable String kind, @Nullable String strategy) {
+        if (kind == null) {
+            kind = "worklist";
         }
+        return switch (kind) {
+            case "worklist" -> new WorkListSolver<>(analysis, strategy);
+            case "priority" -> new WorkListSolver<>(analysis,
+                    strategy != null ? strategy : "rpo");
+            case "block" -> new BlockSolver<>(analysis, strategy);
+            default -> throw new ConfigException("Unknown solver: " + kind);
+        };
     }
 
     /**
-     * Solves the data-flow problem for given CFG.
+     * Checks if given kind of solver can be created by
+     * {@link #makeSolver(DataflowAnalysis, String, String)}, so that
+     * the options of an analysis are checked before it is run.
+     *
+     * @throws ConfigException if kind is unknown
      */
-    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis.isForward()) {
-            doSolveForward(cfg, result);
-        } else {
-            doSolveBackward(cfg, result);
+    static void checkKind(@Nullable String kind) {
+        if (kind != null && !Set.of("worklist", "priority", "block").contains(kind)) {
+            throw new ConfigException("Unknown solver: " + kind);
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
-
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    /**
+     * Starts this solver on the given CFG.
+     *
+     * @param cfg control-flow graph where the analysis is performed on
+     * @return the analysis result
+     */
+    DataflowResult<Node, Fact> solve(CFG<Node> cfg);
 }
@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+/**
+ * Statistics of solving a data-flow problem on the CFG of a method.
+ *
+ * @param analysis      ID of the analysis
+ * @param method        signature of the method
+ * @param nodes         number of nodes in the CFG
+ * @param transfers     number of calls to transferNode()
+ * @param meets         number of calls to meetInto()
+ * @param pushes        number of additions to the work-list, including
+ *                      the ones of present nodes (blocks for block solver)
+ * @param pops          number of nodes (blocks for block solver)
+ *                      polled from the work-list
+ * @param iterations    maximum number of transfers of a single node
+ * @param totalFactSize total size of the resulting facts, i.e., OUT facts
+ *                      for forward analyses, and IN facts for backward
+ *                      analyses, or -1 if the size of facts is unknown
+ * @param maxFactSize   maximum size of the resulting facts,
+ *                      or -1 if the size of facts is unknown
+ * @param nanos         wall time of solving in nanoseconds
+ * @see InstrumentedAnalysis
+ */
+public record SolverMetrics(String analysis, String method, int nodes,
+                            long transfers, long meets, long pushes, long pops,
+                            int iterations, long totalFactSize, int maxFactSize,
+                            long nanos) {
+
+    public static final String CSV_HEADER = "analysis,method,nodes,transfers," +
+            "meets,pushes,pops,iterations,totalFactSize,maxFactSize,nanos";
+
+    /**
+     * @return the key of the metrics of given analysis stored in IR.
+     */
+    public static String getKey(String analysisId) {
+        return analysisId + ".metrics";
+    }
+
+    public String toJson() {
+        return String.format("{\"analysis\": \"%s\", \"method\": \"%s\", " +
+                        "\"nodes\": %d, \"transfers\": %d, \"meets\": %d, " +
+                        "\"pushes\": %d, \"pops\": %d, \"iterations\": %d, " +
+                        "\"totalFactSize\": %d, \"maxFactSize\": %d, \"nanos\": %d}",
+                escapeJson(analysis), escapeJson(method), nodes, transfers, meets,
+                pushes, pops, iterations, totalFactSize, maxFactSize, nanos);
+    }
+
+    public String toCsv() {
+        return String.join(",", escapeCsv(analysis), escapeCsv(method),
+                Integer.toString(nodes), Long.toString(transfers),
+                Long.toString(meets), Long.toString(pushes),
+                Long.toString(pops), Integer.toString(iterations),
+                Long.toString(totalFactSize), Integer.toString(maxFactSize),
+                Long.toString(nanos));
+    }
+
+    private static String escapeJson(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapeCsv(String s) {
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+
+import javax.annotation.Nullable;
+
+/**
+ * Options of how an intra-procedural data-flow analysis is solved,
+ * which are read from the options of the analysis.
+ *
+ * @param kind        kind of the solver, see {@link Solver#makeSolver}
+ * @param strategy    strategy of the work-list, see {@link WorkList#make}
+ * @param internFacts whether to share equal facts among the nodes
+ *                    of the results
+ * @param metrics     whether to collect the metrics of the solver, which
+ *                    are stored in the IR with key {@link SolverMetrics#getKey}
+ */
+public record SolverOptions(@Nullable String kind, @Nullable String strategy,
+                            boolean internFacts, boolean metrics) {
+
+    /**
+     * @throws ConfigException if kind is unknown
+     */
+    public SolverOptions {
+        Solver.checkKind(kind);
+    }
+
+    /**
+     * @return the solver options given by options solver, worklist,
+     * intern-facts and metrics.
+     */
+    public static SolverOptions of(AnalysisOptions options) {
+        return new SolverOptions(options.getString("solver"),
+                options.getString("worklist"),
+                options.getBooleanOrDefault("intern-facts", false),
+                options.getBooleanOrDefault("metrics", false));
+    }
+
+    /**
+     * Solves given analysis on given CFG.
+     *
+     * @param id ID of the analysis, under which the metrics are stored
+     */
+    public <Node, Fact> DataflowResult<Node, Fact> solve(
+            String id, DataflowAnalysis<Node, Fact> analysis, IR ir, CFG<Node> cfg) {
+        if (!metrics) {
+            return Solver.makeSolver(analysis, kind, strategy).solve(cfg);
+        }
+        InstrumentedAnalysis<Node, Fact> instrumented = new InstrumentedAnalysis<>(analysis);
+        long start = System.nanoTime();
+        DataflowResult<Node, Fact> result = Solver.makeSolver(
+                instrumented, kind, strategy).solve(cfg);
+        long elapsed = System.nanoTime() - start;
+        ir.storeResult(SolverMetrics.getKey(id),
+                instrumented.getMetrics(id, cfg, result, elapsed));
+        return result;
+    }
+
+    /**
+     * Shares the equal facts among the nodes of given result,
+     * if {@link #internFacts} is set.
+     */
+    public <Node, Fact> void internFacts(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        if (internFacts) {
+            // the facts of different methods are hardly equal,
+            // so the pool is scoped to the CFG being analyzed
+            FactInterner<Fact> interner = new FactInterner<>();
+            if (result instanceof BlockDataflowResult<Node, Fact> blockResult) {
+                blockResult.internFacts(interner);
+            } else {
+                interner.internAll(cfg, result);
+            }
+        }
+    }
+}
@@ -26,68 +26,67 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.HashSet;
+import javax.annotation.Nullable;
 
-class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+/**
+ * Work-list solver, whose order of processing nodes is decided by
+ * the strategy of its {@link WorkList}.
+ */
+class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
+
+    /**
+     * Strategy of the work-list, see {@link WorkList#make}.
+     */
+    @Nullable
+    private final String strategy;
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
         super(analysis);
+        this.strategy = strategy;
+    }
+
+    private WorkList<Node> newWorkList(CFG<Node> cfg, boolean isForward) {
+        WorkList<Node> workList = WorkList.make(strategy, cfg, isForward);
+        InstrumentedAnalysis<?, ?> instrumented = InstrumentedAnalysis.find(analysis);
+        return instrumented != null ? instrumented.count(workList) : workList;
     }
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
-        HashSet<Node> workList = new HashSet<>();
-        Node entry = cfg.getEntry();
-
+        WorkList<Node> workList = newWorkList(cfg, true);
         for (Node node : cfg) {
-            if (!node.equals(entry)) {
+            if (!cfg.isEntry(node)) {
                 workList.add(node);
             }
         }
-
         while (!workList.isEmpty()) {
-            Node current = workList.iterator().next();
-            workList.remove(current);
-
-            Fact inFact = result.getInFact(current);
-
-            cfg.getPredsOf(current).forEach(node -> {
-                this.analysis.meetInto(result.getOutFact(node), inFact);
-            });
-
-            Fact outFact = result.getOutFact(current);
-            if (this.analysis.transferNode(current, inFact, outFact)) {
-                workList.addAll(cfg.getSuccsOf(current));
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                workList.addAll(cfg.getSuccsOf(node));
             }
         }
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
-        HashSet<Node> workList = new HashSet<>();
-        Node exit = cfg.getExit();
-
+        WorkList<Node> workList = newWorkList(cfg, false);
         for (Node node : cfg) {
-            if (!node.equals(exit)) {
+            if (!cfg.isExit(node)) {
                 workList.add(node);
             }
         }
-
         while (!workList.isEmpty()) {
-            Node current = workList.iterator().next();
-            workList.remove(current);
-
-            Fact outFact = result.getOutFact(current);
-
-            cfg.getSuccsOf(current).forEach(node -> {
-                this.analysis.meetInto(result.getInFact(node), outFact);
-            });
-
-            Fact inFact = result.getInFact(current);
-            if (this.analysis.transferNode(current, inFact, outFact)) {
-                workList.addAll(cfg.getPredsOf(current));
+            Node node = workList.poll();
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                workList.addAll(cfg.getPredsOf(node));
             }
         }
     }
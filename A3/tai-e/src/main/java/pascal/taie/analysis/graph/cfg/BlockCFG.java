@@ -0,0 +1,271 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A view of a CFG whose nodes are the basic blocks of the CFG.
+ * The entry and exit of the CFG form their own blocks, which are the
+ * entry and exit of this view. Each edge between two blocks corresponds
+ * to an edge from the last node of the source block to the first node
+ * of the target block, and has the same kind.
+ *
+ * @param <N> type of nodes of the underlying CFG
+ */
+public class BlockCFG<N> implements CFG<BasicBlock<N>> {
+
+    private final CFG<N> cfg;
+
+    private final Set<BasicBlock<N>> blocks = Sets.newHybridOrderedSet();
+
+    private final Map<N, BasicBlock<N>> node2Block = Maps.newMap();
+
+    /**
+     * Position of each node in its basic block.
+     */
+    private final Map<N, Integer> node2Index = Maps.newMap();
+
+    private final MultiMap<BasicBlock<N>, Edge<BasicBlock<N>>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<BasicBlock<N>, Edge<BasicBlock<N>>> outEdges = Maps.newMultiMap();
+
+    private final MultiMap<BasicBlock<N>, BasicBlock<N>> preds = Maps.newMultiMap();
+
+    private final MultiMap<BasicBlock<N>, BasicBlock<N>> succs = Maps.newMultiMap();
+
+    public BlockCFG(CFG<N> cfg) {
+        this.cfg = cfg;
+        for (N node : cfg) {
+            if (isLeader(node)) {
+                newBlock(node);
+            }
+        }
+        // the nodes left are on cycles which cannot be reached from
+        // the other nodes, any node of such a cycle can start a block
+        for (N node : cfg) {
+            if (!node2Block.containsKey(node)) {
+                newBlock(node);
+            }
+        }
+        for (BasicBlock<N> block : blocks) {
+            for (Edge<N> edge : cfg.getOutEdgesOf(block.getLast())) {
+                BasicBlock<N> target = node2Block.get(edge.getTarget());
+                Edge<BasicBlock<N>> blockEdge = new BlockEdge<>(edge, block, target);
+                outEdges.put(block, blockEdge);
+                inEdges.put(target, blockEdge);
+                succs.put(block, target);
+                preds.put(target, block);
+            }
+        }
+    }
+
+    /**
+     * @return true if given node must start a basic block.
+     */
+    private boolean isLeader(N node) {
+        if (cfg.isEntry(node) || cfg.isExit(node)) {
+            return true;
+        }
+        Set<N> nodePreds = cfg.getPredsOf(node);
+        if (nodePreds.size() != 1) {
+            return true;
+        }
+        N pred = nodePreds.iterator().next();
+        return cfg.isEntry(pred) || cfg.getSuccsOf(pred).size() != 1;
+    }
+
+    private void newBlock(N leader) {
+        List<N> nodes = new ArrayList<>();
+        N node = leader;
+        while (true) {
+            nodes.add(node);
+            if (cfg.isEntry(node) || cfg.isExit(node)) {
+                break;
+            }
+            Set<N> nodeSuccs = cfg.getSuccsOf(node);
+            if (nodeSuccs.size() != 1) {
+                break;
+            }
+            N succ = nodeSuccs.iterator().next();
+            if (succ.equals(leader) || isLeader(succ)) {
+                break;
+            }
+            node = succ;
+        }
+        BasicBlock<N> block = new BasicBlock<>(blocks.size(), nodes);
+        blocks.add(block);
+        for (int i = 0; i < nodes.size(); ++i) {
+            node2Block.put(nodes.get(i), block);
+            node2Index.put(nodes.get(i), i);
+        }
+    }
+
+    /**
+     * Edge between two blocks, which keeps the edge of the underlying CFG
+     * it corresponds to. Two block edges are equal only if their
+     * underlying edges are equal, e.g., the edges of different cases
+     * between the same blocks are different.
+     */
+    private static class BlockEdge<N> extends Edge<BasicBlock<N>> {
+
+        private final Edge<N> nodeEdge;
+
+        private BlockEdge(Edge<N> nodeEdge, BasicBlock<N> source, BasicBlock<N> target) {
+            super(nodeEdge.getKind(), source, target);
+            this.nodeEdge = nodeEdge;
+        }
+
+        @Override
+        public int getCaseValue() {
+            return nodeEdge.getCaseValue();
+        }
+
+        @Override
+        public Set<ClassType> getExceptions() {
+            return nodeEdge.getExceptions();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) &&
+                    nodeEdge.equals(((BlockEdge<?>) o).nodeEdge);
+        }
+
+        @Override
+        public int hashCode() {
+            return nodeEdge.hashCode();
+        }
+    }
+
+    /**
+     * @return the edge of the underlying CFG which given edge of this view
+     * corresponds to, i.e., the edge from the last node of the source block
+     * to the first node of the target block.
+     */
+    public Edge<N> getNodeEdge(Edge<BasicBlock<N>> blockEdge) {
+        return ((BlockEdge<N>) blockEdge).nodeEdge;
+    }
+
+    /**
+     * @return the underlying CFG of this view.
+     */
+    public CFG<N> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the basic block containing given node.
+     */
+    public BasicBlock<N> getBlockOf(N node) {
+        return node2Block.get(node);
+    }
+
+    /**
+     * @return the position of given node in its basic block.
+     */
+    public int getIndexInBlock(N node) {
+        return node2Index.get(node);
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public BasicBlock<N> getEntry() {
+        return node2Block.get(cfg.getEntry());
+    }
+
+    @Override
+    public BasicBlock<N> getExit() {
+        return node2Block.get(cfg.getExit());
+    }
+
+    @Override
+    public boolean isEntry(BasicBlock<N> block) {
+        return block == getEntry();
+    }
+
+    @Override
+    public boolean isExit(BasicBlock<N> block) {
+        return block == getExit();
+    }
+
+    @Override
+    public Set<Edge<BasicBlock<N>>> getInEdgesOf(BasicBlock<N> block) {
+        return inEdges.get(block);
+    }
+
+    @Override
+    public Set<Edge<BasicBlock<N>>> getOutEdgesOf(BasicBlock<N> block) {
+        return outEdges.get(block);
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock<N> block) {
+        return blocks.contains(block);
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock<N> source, BasicBlock<N> target) {
+        return succs.contains(source, target);
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getPredsOf(BasicBlock<N> block) {
+        return preds.get(block);
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getSuccsOf(BasicBlock<N> block) {
+        return succs.get(block);
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getNodes() {
+        return Collections.unmodifiableSet(blocks);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.MethodSummaryCache;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseCPResult;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Checks the options of data-flow analyses on hand-built IRs, i.e.,
+ * that they do not change the results, and that they take effect.
+ */
+public class DataflowOptionsTest {
+
+    private static final int ROUNDS = 500;
+
+    /**
+     * Builds the IR (and its CFG) of a method without this variable
+     * from given statements.
+     */
+    private static IR buildIR(List<Var> params, List<Var> vars, List<Stmt> stmts) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, params, Set.of(),
+                vars, stmts, List.of());
+        CFG<Stmt> cfg = new CFGBuilder(new AnalysisConfig(CFGBuilder.ID,
+                "exception", "none", "dump", false)).analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return ir;
+    }
+
+    /**
+     * Builds a random method with int variables, arithmetic (including
+     * division and remainder by zero), comparisons, branches and loops.
+     * The method also has long variables, which cannot hold int values
+     * and are only compared to define int variables.
+     */
+    private static IR randomIR(Random random) {
+        int nParams = random.nextInt(3);
+        int nVars = nParams + 1 + random.nextInt(6);
+        List<Var> params = new ArrayList<>();
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < nVars; ++i) {
+            Var var = new Var(null, "v" + i, PrimitiveType.INT, i);
+            vars.add(var);
+            if (i < nParams) {
+                params.add(var);
+            }
+        }
+        // the first long variable is a parameter
+        List<Var> longVars = new ArrayList<>();
+        for (int i = 0; i < 2; ++i) {
+            Var var = new Var(null, "l" + i, PrimitiveType.LONG, nVars + i);
+            longVars.add(var);
+            if (i == 0) {
+                params.add(var);
+            }
+        }
+        List<Stmt> stmts = new ArrayList<>();
+        List<Stmt> jumps = new ArrayList<>();
+        int nStmts = 1 + random.nextInt(30);
+        for (int i = 0; i < nStmts; ++i) {
+            Var lhs = vars.get(nParams + random.nextInt(nVars - nParams));
+            Var v1 = vars.get(random.nextInt(nVars));
+            Var v2 = vars.get(random.nextInt(nVars));
+            Var l1 = longVars.get(random.nextInt(longVars.size()));
+            Var l2 = longVars.get(random.nextInt(longVars.size()));
+            ConditionExp.Op cmp = ConditionExp.Op.values()[
+                    random.nextInt(ConditionExp.Op.values().length)];
+            Stmt stmt = switch (random.nextInt(8)) {
+                case 0 -> new AssignLiteral(lhs, IntLiteral.get(random.nextInt(3)));
+                case 1 -> new Copy(lhs, v1);
+                case 2 -> new Binary(lhs, new ArithmeticExp(ArithmeticExp.Op.values()[
+                        random.nextInt(ArithmeticExp.Op.values().length)], v1, v2));
+                case 3 -> new Binary(lhs, new ConditionExp(cmp, v1, v2));
+                case 4 -> new If(new ConditionExp(cmp, v1, v2));
+                case 5 -> new AssignLiteral(longVars.get(1),
+                        LongLiteral.get(random.nextInt(3)));
+                case 6 -> new Binary(lhs, new ComparisonExp(
+                        ComparisonExp.Op.CMP, l1, l2));
+                default -> new Goto();
+            };
+            if (stmt instanceof If || stmt instanceof Goto) {
+                jumps.add(stmt);
+            }
+            stmts.add(stmt);
+        }
+        stmts.add(new Return());
+        for (Stmt jump : jumps) {
+            Stmt target = stmts.get(random.nextInt(stmts.size()));
+            if (jump instanceof If ifStmt) {
+                ifStmt.setTarget(target);
+            } else {
+                ((Goto) jump).setTarget(target);
+            }
+        }
+        List<Var> allVars = new ArrayList<>(vars);
+        allVars.addAll(longVars);
+        return buildIR(params, allVars, stmts);
+    }
+
+    private static <Fact> void assertSameResult(
+            IR ir, NodeResult<Stmt, Fact> expected, NodeResult<Stmt, Fact> given) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        for (Stmt node : cfg) {
+            Assert.assertEquals(expected.getInFact(node), given.getInFact(node));
+            Assert.assertEquals(expected.getOutFact(node), given.getOutFact(node));
+        }
+    }
+
+    private static NodeResult<Stmt, CPFact> constprop(IR ir, Object... options) {
+        return new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, options)).analyze(ir);
+    }
+
+    private static NodeResult<Stmt, SetFact<Var>> livevar(IR ir, Object... options) {
+        return new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, options)).analyze(ir);
+    }
+
+    /**
+     * Checks that each option of the solvers computes the same results
+     * as the default solver.
+     */
+    private static void testSolverOption(Object... options) {
+        Random random = new Random(0);
+        for (int i = 0; i < ROUNDS; ++i) {
+            IR ir = randomIR(random);
+            Object[] cpOptions = new Object[options.length + 2];
+            cpOptions[0] = "edge-refine";
+            cpOptions[1] = false;
+            System.arraycopy(options, 0, cpOptions, 2, options.length);
+            assertSameResult(ir, constprop(ir, "edge-refine", false),
+                    constprop(ir, cpOptions));
+            assertSameResult(ir, livevar(ir), livevar(ir, options));
+        }
+    }
+
+    @Test
+    public void testPrioritySolver() {
+        testSolverOption("solver", "priority");
+    }
+
+    @Test
+    public void testBlockSolver() {
+        testSolverOption("solver", "block");
+    }
+
+    @Test
+    public void testBlockSolverWithPriorityWorkList() {
+        testSolverOption("solver", "block", "worklist", "rpo");
+    }
+
+    @Test
+    public void testSCCWorkList() {
+        testSolverOption("worklist", "scc");
+    }
+
+    @Test
+    public void testLRFWorkList() {
+        testSolverOption("worklist", "lrf");
+    }
+
+    @Test
+    public void testCompiledConstprop() {
+        Random random = new Random(0);
+        for (int i = 0; i < ROUNDS; ++i) {
+            IR ir = randomIR(random);
+            assertSameResult(ir, constprop(ir, "edge-refine", false),
+                    constprop(ir, "edge-refine", false, "compile", true));
+        }
+    }
+
+    @Test
+    public void testSparseConstprop() {
+        SparseConstantPropagation sparse = new SparseConstantPropagation(
+                new AnalysisConfig(SparseConstantPropagation.ID));
+        Random random = new Random(0);
+        for (int i = 0; i < ROUNDS; ++i) {
+            IR ir = randomIR(random);
+            SparseCPResult result = sparse.analyze(ir);
+            NodeResult<Stmt, CPFact> expected = constprop(ir, "edge-refine", false);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            for (Stmt stmt : cfg) {
+                CPFact in = result.getInFact(stmt);
+                // the solver leaves IN fact of the entry unset
+                if (!cfg.isEntry(stmt)) {
+                    Assert.assertEquals(expected.getInFact(stmt), in);
+                }
+                Assert.assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+                ir.getVars().forEach(var ->
+                        Assert.assertEquals(in.get(var), result.getInValue(stmt, var)));
+            }
+        }
+    }
+
+    @Test
+    public void testCoDataflow() {
+        CoDataflowAnalysis coDataflow = new CoDataflowAnalysis(new AnalysisConfig(
+                CoDataflowAnalysis.ID, "analyses", List.of(ConstantPropagation.ID,
+                ReachingDefinitionAnalysis.ID, LiveVariableAnalysis.ID),
+                "compile", true));
+        Random random = new Random(0);
+        for (int i = 0; i < ROUNDS; ++i) {
+            IR ir = randomIR(random);
+            coDataflow.analyze(ir);
+            assertSameResult(ir, constprop(ir), ir.getResult(ConstantPropagation.ID));
+            assertSameResult(ir, new ReachingDefinitionAnalysis(new AnalysisConfig(
+                            ReachingDefinitionAnalysis.ID)).analyze(ir),
+                    ir.getResult(ReachingDefinitionAnalysis.ID));
+            assertSameResult(ir, livevar(ir), ir.getResult(LiveVariableAnalysis.ID));
+        }
+    }
+
+    @Test
+    public void testReachingDefinitionKillSets() {
+        ReachingDefinitionAnalysis reachdef = new ReachingDefinitionAnalysis(
+                new AnalysisConfig(ReachingDefinitionAnalysis.ID));
+        Random random = new Random(0);
+        for (int i = 0; i < ROUNDS; ++i) {
+            IR ir = randomIR(random);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowAnalysis<Stmt, SetFact<Stmt>> specialized = reachdef.specialize(cfg);
+            for (Stmt stmt : cfg) {
+                SetFact<Stmt> in = reachdef.newInitialFact(cfg);
+                ir.getStmts().forEach(def -> {
+                    if (random.nextBoolean()) {
+                        in.add(def);
+                    }
+                });
+                SetFact<Stmt> expected = reachdef.newInitialFact(cfg);
+                SetFact<Stmt> given = reachdef.newInitialFact(cfg);
+                Assert.assertEquals(reachdef.transferNode(stmt, in, expected),
+                        specialized.transferNode(stmt, in, given));
+                Assert.assertEquals(expected, given);
+            }
+        }
+    }
+
+    @Test
+    public void testSolverMetrics() {
+        // x = 1; y = x; return;
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        IR ir = buildIR(List.of(), List.of(x, y), new ArrayList<>(List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new Copy(y, x),
+                new Return())));
+        constprop(ir, "edge-refine", false, "metrics", true);
+        SolverMetrics metrics = ir.getResult(
+                SolverMetrics.getKey(ConstantPropagation.ID));
+        // the FIFO work-list starts with the 4 nodes other than the entry,
+        // each of them is transferred once, and the 3 changes re-add
+        // the successors which are still in the work-list
+        Assert.assertEquals(5, metrics.nodes());
+        Assert.assertEquals(4, metrics.transfers());
+        Assert.assertEquals(4, metrics.meets());
+        Assert.assertEquals(7, metrics.pushes());
+        Assert.assertEquals(4, metrics.pops());
+        Assert.assertEquals(1, metrics.iterations());
+        // out facts: entry {}, x = 1 {x}, and {x, y} for the others
+        Assert.assertEquals(7, metrics.totalFactSize());
+        Assert.assertEquals(2, metrics.maxFactSize());
+    }
+
+    /**
+     * Deletes the results of given analysis cached by previous runs.
+     */
+    private static void clearCache(String id) throws IOException {
+        Path dir = Configs.getOutputDir().toPath()
+                .resolve("summary-cache").resolve(id);
+        if (Files.exists(dir)) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder())
+                        .forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testSummaryCache() throws IOException {
+        clearCache(LiveVariableAnalysis.ID);
+        IR ir = randomIR(new Random(0));
+        // each analysis instance simulates a run
+        LiveVariableAnalysis first = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "cache", true));
+        NodeResult<Stmt, SetFact<Var>> expected = first.analyze(ir);
+        Assert.assertEquals(0, first.getCache().getHits());
+        Assert.assertEquals(1, first.getCache().getMisses());
+        LiveVariableAnalysis second = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "cache", true));
+        assertSameResult(ir, expected, second.analyze(ir));
+        Assert.assertEquals(1, second.getCache().getHits());
+        Assert.assertEquals(0, second.getCache().getMisses());
+        // different options miss the cache
+        LiveVariableAnalysis priority = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "cache", true, "solver", "priority"));
+        priority.analyze(ir);
+        Assert.assertEquals(0, priority.getCache().getHits());
+    }
+
+    @Test
+    public void testDeadCodeSummaryCache() throws IOException {
+        clearCache(DeadCodeDetection.ID);
+        IR ir = randomIR(new Random(0));
+        DeadCodeDetection first = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", ConstantPropagation.ID));
+        Set<Stmt> expected = first.analyze(ir);
+        Assert.assertEquals(1, first.getCache().getMisses());
+        DeadCodeDetection second = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", ConstantPropagation.ID));
+        Assert.assertEquals(expected, second.analyze(ir));
+        Assert.assertEquals(1, second.getCache().getHits());
+        // the options of the analyses run by the pipeline are in the key
+        DeadCodeDetection sparse = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", SparseConstantPropagation.ID));
+        sparse.analyze(ir);
+        Assert.assertEquals(0, sparse.getCache().getHits());
+        DeadCodeDetection priority = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", ConstantPropagation.ID, "solver", "priority"));
+        priority.analyze(ir);
+        Assert.assertEquals(0, priority.getCache().getHits());
+        // so are the option maps forwarded to them
+        DeadCodeDetection compiled = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", ConstantPropagation.ID,
+                "constprop-options", Map.of("compile", true, "intern-facts", true)));
+        Assert.assertEquals(expected, compiled.analyze(ir));
+        Assert.assertEquals(0, compiled.getCache().getHits());
+        DeadCodeDetection strongly = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "fused", true, "cache", true,
+                "constprop", ConstantPropagation.ID,
+                "livevar-options", Map.of("strongly", true, "solver", "block")));
+        strongly.analyze(ir);
+        Assert.assertEquals(0, strongly.getCache().getHits());
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testDeadCodeOptionsMustBeMap() {
+        new DeadCodeDetection(new AnalysisConfig(DeadCodeDetection.ID,
+                "fused", true, "constprop", ConstantPropagation.ID,
+                "livevar-options", "strongly"));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testDeadCodeSummaryCacheRequiresFused() {
+        new DeadCodeDetection(new AnalysisConfig(DeadCodeDetection.ID,
+                "fused", false, "cache", true, "constprop", ConstantPropagation.ID));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testSummaryCacheRequiresFactCodec() {
+        new ReachingDefinitionAnalysis(new AnalysisConfig(
+                ReachingDefinitionAnalysis.ID, "cache", true));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testUnknownSolver() {
+        new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "solver", "unknown"));
+    }
+
+    @Test
+    public void testSummaryCacheWithBrokenCodec() throws IOException {
+        clearCache(LiveVariableAnalysis.ID);
+        IR ir = randomIR(new Random(0));
+        MethodSummaryCache<Integer> cache = new MethodSummaryCache<>(
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "codec", "broken")),
+                new MethodSummaryCache.Codec<>() {
+                    @Override
+                    public void write(DataOutput out, IR ir, Integer result)
+                            throws IOException {
+                        out.writeInt(result);
+                    }
+
+                    @Override
+                    public Integer read(DataInput in, IR ir) throws IOException {
+                        throw new IOException("broken");
+                    }
+                });
+        Assert.assertEquals(1, (int) cache.computeIfAbsent(ir, () -> 1));
+        // the cached file cannot be read, thus the result is recomputed
+        Assert.assertEquals(2, (int) cache.computeIfAbsent(ir, () -> 2));
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testInternedFacts() {
+        // x = 1; y = x; y = x; y = x; return;
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        List<Stmt> stmts = new ArrayList<>(List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new Copy(y, x), new Copy(y, x), new Copy(y, x),
+                new Return()));
+        IR ir = buildIR(List.of(), List.of(x, y), stmts);
+        NodeResult<Stmt, CPFact> plain = constprop(ir, "edge-refine", false);
+        NodeResult<Stmt, CPFact> interned = constprop(ir,
+                "edge-refine", false, "intern-facts", true);
+        assertSameResult(ir, plain, interned);
+        // the adjacent equal facts are the same instance after interning
+        Stmt s1 = stmts.get(1), s2 = stmts.get(2), s3 = stmts.get(3);
+        Assert.assertNotSame(plain.getOutFact(s1), plain.getOutFact(s2));
+        Assert.assertSame(interned.getOutFact(s1), interned.getOutFact(s2));
+        Assert.assertSame(interned.getOutFact(s2), interned.getInFact(s3));
+        Assert.assertSame(interned.getOutFact(s3), interned.getInFact(stmts.get(4)));
+        // only {}, {x=1} and {x=1, y=1} are distinct
+        FactInterner<CPFact> interner = new FactInterner<>();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        for (Stmt node : cfg) {
+            if (interned.getInFact(node) != null) {
+                interner.intern(interned.getInFact(node));
+            }
+            interner.intern(interned.getOutFact(node));
+        }
+        Assert.assertEquals(3, interner.size());
+    }
+}
@@ -22,16 +22,62 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.World;
+import pascal.taie.analysis.MethodSummaryCache;
+import pascal.taie.analysis.ResultProcessor;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+import pascal.taie.config.AnalysisConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DeadCodeTest {
 
+    /**
+     * Fresh directory of the files written by each test, e.g., the cached
+     * results, so that the files written by other runs are never read.
+     */
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
     void testDCD(String inputClass) {
-        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
-                DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+        testWithOptions(inputClass, "");
+    }
+
+    /**
+     * Runs dead code detection on given class with the results of
+     * livevar and constprop, where given options (if not empty) are
+     * passed to both of the analyses.
+     */
+    void testWithOptions(String inputClass, String opts) {
+        String extra = opts.isEmpty() ? "" : ";" + opts;
+        Tests.test(inputClass, CLASS_PATH, DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false" + extra,
+                "-a", "constprop=edge-refine:false" + extra);
+    }
+
+    /**
+     * Runs dead code detection on given class, where the first of given
+     * options are the ones of deadcode itself, e.g., of the fused pipeline,
+     * and the rest are passed to Tai-e as they are.
+     */
+    void testWithDeadCodeOptions(String inputClass, String... opts) {
+        Tests.test(inputClass, CLASS_PATH, DeadCodeDetection.ID, opts);
     }
 
     @Test
@@ -58,4 +104,121 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testLoopsWithPrioritySolver() {
+        testWithOptions("Loops", "solver:priority");
+    }
+
+    @Test
+    public void testLoopsWithSCCWorkList() {
+        testWithOptions("Loops", "worklist:scc");
+    }
+
+    @Test
+    public void testLoopsWithLRFWorkList() {
+        testWithOptions("Loops", "worklist:lrf");
+    }
+
+    @Test
+    public void testLoopsWithBlockSolver() {
+        testWithOptions("Loops", "solver:block");
+    }
+
+    @Test
+    public void testLoopsWithSolverMetrics() throws IOException {
+        testWithOptions("Loops", "metrics:true");
+        // dump the metrics collected by the run above
+        File file = tempDir.newFile("results.txt");
+        new ResultProcessor(new AnalysisConfig(ResultProcessor.ID,
+                "analyses", List.of(LiveVariableAnalysis.ID, ConstantPropagation.ID),
+                "action", "dump", "file", file.getPath(),
+                "metrics", "csv", "log-mismatches", false)).analyze();
+        File metrics = new File(file.getPath() + ".metrics.csv");
+        Assert.assertTrue("No metrics file " + metrics, metrics.exists());
+        List<String> lines = Files.readAllLines(metrics.toPath());
+        Assert.assertEquals(SolverMetrics.CSV_HEADER, lines.get(0));
+        Set<String> analyses = new HashSet<>();
+        Pattern row = Pattern.compile("^\"([^\"]*)\",\"(?:[^\"]|\"\")*\",(.*)$");
+        for (String line : lines.subList(1, lines.size())) {
+            Matcher matcher = row.matcher(line);
+            Assert.assertTrue("Malformed metrics: " + line, matcher.matches());
+            analyses.add(matcher.group(1));
+            // nodes, transfers, meets, pushes, pops, iterations, ...
+            long[] counts = Arrays.stream(matcher.group(2).split(","))
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+            Assert.assertTrue("No nodes: " + line, counts[0] > 0);
+            Assert.assertTrue("No transfers: " + line, counts[1] > 0);
+            Assert.assertTrue("No pops: " + line, counts[4] > 0);
+        }
+        Assert.assertEquals(Set.of(LiveVariableAnalysis.ID, ConstantPropagation.ID),
+                analyses);
+    }
+
+    @Test
+    public void testUnreachableIfBranchWithCompiledConstprop() {
+        // livevar ignores option compile
+        testWithOptions("UnreachableIfBranch", "compile:true");
+    }
+
+    @Test
+    public void testDeadAssignmentWithInternedFacts() {
+        testWithOptions("DeadAssignment", "intern-facts:true");
+    }
+
+    /**
+     * Checks the hits and misses of the summary cache of given analysis
+     * in the last run. The first run computes and caches all results,
+     * and the second run reads all of them from the cache.
+     */
+    private static void assertCacheUsed(String id, boolean firstRun) {
+        MethodSummaryCache<?> cache = World.get().getResult(
+                MethodSummaryCache.getKey(id));
+        Assert.assertNotNull("No summary cache of " + id, cache);
+        if (firstRun) {
+            Assert.assertEquals(0, cache.getHits());
+            Assert.assertTrue(cache.getMisses() > 0);
+        } else {
+            Assert.assertTrue(cache.getHits() > 0);
+            Assert.assertEquals(0, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testDeadAssignmentWithSummaryCache() {
+        String dir = tempDir.getRoot().getPath();
+        for (int i = 0; i < 2; ++i) {
+            testWithOptions("DeadAssignment", "cache:true;cache-dir:" + dir);
+            assertCacheUsed(LiveVariableAnalysis.ID, i == 0);
+            assertCacheUsed(ConstantPropagation.ID, i == 0);
+        }
+    }
+
+    @Test
+    public void testDeadAssignmentFusedWithSummaryCache() {
+        String dir = tempDir.getRoot().getPath();
+        for (int i = 0; i < 2; ++i) {
+            testWithDeadCodeOptions("DeadAssignment",
+                    "fused:true;cache:true;cache-dir:" + dir);
+            assertCacheUsed(DeadCodeDetection.ID, i == 0);
+        }
+    }
+
+    @Test
+    public void testUnreachableIfBranchWithSparseConstprop() {
+        testWithDeadCodeOptions("UnreachableIfBranch", "constprop:sparse-constprop",
+                "-a", "livevar=strongly:false");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchFused() {
+        testWithDeadCodeOptions("UnreachableSwitchBranch", "fused:true");
+    }
+
+    @Test
+    public void testUnreachableIfBranchFusedWithSparseConstprop() {
+        testWithDeadCodeOptions("UnreachableIfBranch",
+                "fused:true;constprop:sparse-constprop");
+    }
 }
@@ -22,12 +22,9 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
-import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMapFact;
 import pascal.taie.ir.exp.Var;
 
-import java.util.Collections;
-import java.util.Map;
-
 /**
  * Represents data facts of constant propagation, which maps variables
  * to their lattice values.
@@ -37,15 +34,17 @@ import java.util.Map;
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
+ * <p>
+ * CPFacts are persistent, so that {@link #copy()} is cheap and the copies
+ * share the unchanged mappings. See {@link PersistentMapFact} for details.
  */
-public class CPFact extends MapFact<Var, Value> {
+public class CPFact extends PersistentMapFact<Var, Value> {
 
     public CPFact() {
-        this(Collections.emptyMap());
     }
 
-    private CPFact(Map<Var, Value> map) {
-        super(map);
+    private CPFact(CPFact fact) {
+        super(fact);
     }
 
     /**
@@ -54,7 +53,8 @@ public class CPFact extends MapFact<Var, Value> {
      */
     @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        Value value = super.get(key);
+        return value != null ? value : Value.getUndef();
     }
 
     @Override
@@ -71,6 +71,6 @@ public class CPFact extends MapFact<Var, Value> {
 
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        return new CPFact(this);
     }
 }
@@ -33,6 +33,7 @@ import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -47,6 +48,10 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected ICFG<Method, Node> icfg;
 
+    /**
+     * The node-level solver, which is null if the analysis is solved
+     * on basic blocks by {@link BlockInterSolver}.
+     */
     protected InterSolver<Method, Node, Fact> solver;
 
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
@@ -121,8 +126,17 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        String kind = getOptions().getString("solver");
+        String strategy = getOptions().getString("worklist");
+        DataflowResult<Node, Fact> result;
+        if (kind == null || kind.equals("worklist")) {
+            solver = new InterSolver<>(this, icfg, strategy);
+            result = solver.solve();
+        } else if (kind.equals("block")) {
+            result = new BlockInterSolver<>(this, icfg, strategy).solve();
+        } else {
+            throw new ConfigException("Unknown solver: " + kind);
+        }
         finish();
         return result;
     }
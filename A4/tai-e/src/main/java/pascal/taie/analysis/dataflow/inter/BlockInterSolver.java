@@ -0,0 +1,391 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Solver for inter-procedural data-flow analysis, which solves the problem
+ * on the basic blocks of the ICFG, so that the work-list holds blocks
+ * instead of nodes, and the facts are stored only at the block boundaries.
+ * <p>
+ * A block is a maximal chain of nodes connected by {@link NormalEdge}s,
+ * where each node except the last one has a single out-edge, and each node
+ * except the first one has a single in-edge. Thus, call sites end blocks,
+ * and the entries of methods and the return sites start blocks.
+ * The facts of the other nodes are computed on demand by the returned
+ * {@link DataflowResult}, which cannot be modified by the clients.
+ */
+class BlockInterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Strategy of the block-level work-list, see {@link WorkList#make}.
+     */
+    @Nullable
+    private final String strategy;
+
+    /**
+     * Nodes of the blocks, indexed by the numbers of the blocks.
+     */
+    private Node[][] blocks;
+
+    /**
+     * Edges between the consecutive nodes of the blocks, i.e.,
+     * the i-th edge of a block goes from its i-th node to the next one.
+     */
+    private ICFGEdge<Node>[][] innerEdges;
+
+    /**
+     * In-edges of the first nodes of the blocks.
+     */
+    private ICFGEdge<Node>[][] inEdges;
+
+    /**
+     * Numbers of the blocks of the sources of {@link #inEdges}.
+     */
+    private int[][] preds;
+
+    /**
+     * Numbers of the successors of the blocks.
+     */
+    private int[][] succs;
+
+    /**
+     * Number of the block of each node.
+     */
+    private Map<Node, Integer> blockOf;
+
+    /**
+     * Index of each node in its block.
+     */
+    private Map<Node, Integer> indexInBlock;
+
+    /**
+     * IN facts of the first nodes of the blocks.
+     */
+    private Object[] inFacts;
+
+    /**
+     * OUT facts of the last nodes of the blocks.
+     */
+    private Object[] outFacts;
+
+    /**
+     * Whether the analysis supports resetting facts, so that the facts
+     * between the nodes in a block are held in the two scratch facts,
+     * which are reused by the transfers of all blocks.
+     */
+    private final boolean reuseFacts;
+
+    private final Fact scratch0;
+
+    private final Fact scratch1;
+
+    BlockInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                     ICFG<Method, Node> icfg, @Nullable String strategy) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.strategy = strategy;
+        this.scratch0 = analysis.newInitialFact();
+        this.reuseFacts = analysis.resetFact(scratch0);
+        this.scratch1 = reuseFacts ? analysis.newInitialFact() : null;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        Node entry = icfg.getEntryOf(getMainMethod());
+        buildBlocks(entry);
+        initialize(entry);
+        doSolve(blockOf.get(entry));
+        return new BlockResult();
+    }
+
+    private Method getMainMethod() {
+        List<Method> methods = icfg.entryMethods().toList();
+        if (methods.size() != 1) {
+            throw new RuntimeException("Multiple entry point of icfg found");
+        }
+        return methods.get(0);
+    }
+
+    /**
+     * @return true if given node starts a block. The entry of the main
+     * method is a block by itself, as its OUT fact is the boundary fact.
+     */
+    private boolean isBlockHead(Node node, Node entry) {
+        if (node.equals(entry)) {
+            return true;
+        }
+        Set<ICFGEdge<Node>> edges = icfg.getInEdgesOf(node);
+        if (edges.size() != 1) {
+            return true;
+        }
+        ICFGEdge<Node> edge = edges.iterator().next();
+        return !(edge instanceof NormalEdge) ||
+                edge.getSource().equals(entry) ||
+                icfg.getOutEdgesOf(edge.getSource()).size() != 1;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void buildBlocks(Node entry) {
+        blockOf = Maps.newMap();
+        indexInBlock = Maps.newMap();
+        List<Node[]> nodeLists = new ArrayList<>();
+        List<ICFGEdge<Node>[]> edgeLists = new ArrayList<>();
+        for (Node node : icfg) {
+            if (isBlockHead(node, entry)) {
+                addBlock(node, entry, nodeLists, edgeLists);
+            }
+        }
+        // the nodes on a cycle without heads, which are unreachable
+        // from the entry, form the remaining blocks
+        for (Node node : icfg) {
+            if (!blockOf.containsKey(node)) {
+                addBlock(node, entry, nodeLists, edgeLists);
+            }
+        }
+        int size = nodeLists.size();
+        blocks = (Node[][]) nodeLists.toArray(new Object[0][]);
+        innerEdges = edgeLists.toArray(new ICFGEdge[0][]);
+        inEdges = new ICFGEdge[size][];
+        preds = new int[size][];
+        succs = new int[size][];
+        for (int b = 0; b < size; ++b) {
+            Node first = blocks[b][0];
+            inEdges[b] = icfg.getInEdgesOf(first).toArray(new ICFGEdge[0]);
+            preds[b] = new int[inEdges[b].length];
+            for (int i = 0; i < inEdges[b].length; ++i) {
+                preds[b][i] = blockOf.get(inEdges[b][i].getSource());
+            }
+            Node last = blocks[b][blocks[b].length - 1];
+            succs[b] = icfg.getSuccsOf(last).stream()
+                    .mapToInt(blockOf::get)
+                    .toArray();
+        }
+    }
+
+    /**
+     * Collects the block starting at given node.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void addBlock(Node head, Node entry,
+                          List<Node[]> nodeLists, List<ICFGEdge<Node>[]> edgeLists) {
+        int number = nodeLists.size();
+        List<Node> nodes = new ArrayList<>();
+        List<ICFGEdge<Node>> edges = new ArrayList<>();
+        Node node = head;
+        while (true) {
+            blockOf.put(node, number);
+            indexInBlock.put(node, nodes.size());
+            nodes.add(node);
+            Set<ICFGEdge<Node>> outEdges = icfg.getOutEdgesOf(node);
+            if (outEdges.size() != 1) {
+                break;
+            }
+            ICFGEdge<Node> edge = outEdges.iterator().next();
+            Node target = edge.getTarget();
+            if (blockOf.containsKey(target) || isBlockHead(target, entry)) {
+                break;
+            }
+            edges.add(edge);
+            node = target;
+        }
+        nodeLists.add((Node[]) nodes.toArray());
+        edgeLists.add(edges.toArray(new ICFGEdge[0]));
+    }
+
+    private void initialize(Node entry) {
+        inFacts = new Object[blocks.length];
+        outFacts = new Object[blocks.length];
+        int entryBlock = blockOf.get(entry);
+        for (int b = 0; b < blocks.length; ++b) {
+            if (b == entryBlock) {
+                outFacts[b] = analysis.newBoundaryFact(entry);
+            } else {
+                inFacts[b] = analysis.newInitialFact();
+                outFacts[b] = analysis.newInitialFact();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void doSolve(int entryBlock) {
+        WorkList workList = WorkList.make(strategy, succs, entryBlock);
+        for (int b = 0; b < blocks.length; ++b) {
+            if (b != entryBlock) {
+                workList.add(b);
+            }
+        }
+        while (!workList.isEmpty()) {
+            int current = workList.poll();
+            Fact inFact = (Fact) inFacts[current];
+            ICFGEdge<Node>[] edges = inEdges[current];
+            for (int i = 0; i < edges.length; ++i) {
+                analysis.meetInto(analysis.transferEdge(
+                        edges[i], (Fact) outFacts[preds[current][i]]), inFact);
+            }
+            if (transferBlock(current, inFact, (Fact) outFacts[current], null)) {
+                for (int succ : succs[current]) {
+                    workList.add(succ);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transfers the facts through the nodes of given block.
+     *
+     * @param nodeFacts if not null, receives the IN and OUT facts of
+     *                  the nodes in the block, i.e., the IN fact of the i-th
+     *                  node is at 2 * i, and the OUT fact is at 2 * i + 1.
+     *                  Otherwise, the facts inside the block are dropped,
+     *                  and they are held in the scratch facts if possible.
+     * @return if the OUT fact of the block changed.
+     */
+    private boolean transferBlock(int block, Fact in, Fact out,
+                                  @Nullable Object[] nodeFacts) {
+        Node[] nodes = blocks[block];
+        ICFGEdge<Node>[] edges = innerEdges[block];
+        int last = nodes.length - 1;
+        boolean keepFacts = nodeFacts != null;
+        Fact fact = in;
+        for (int i = 0; i < last; ++i) {
+            Fact nodeOut = newIntermediateFact(scratch0, keepFacts);
+            analysis.transferNode(nodes[i], fact, nodeOut);
+            // fact is not used after the transfer above,
+            // thus it can be reset if it is scratch1
+            Fact next = newIntermediateFact(scratch1, keepFacts);
+            analysis.meetInto(analysis.transferEdge(edges[i], nodeOut), next);
+            if (nodeFacts != null) {
+                nodeFacts[2 * i] = fact;
+                nodeFacts[2 * i + 1] = nodeOut;
+            }
+            fact = next;
+        }
+        if (nodeFacts != null) {
+            nodeFacts[2 * last] = fact;
+            nodeFacts[2 * last + 1] = out;
+        }
+        return analysis.transferNode(nodes[last], fact, out);
+    }
+
+    /**
+     * @return a fact for the transfers inside a block, which is given
+     * scratch fact if the facts are not kept and can be reused,
+     * or a new fact otherwise.
+     */
+    private Fact newIntermediateFact(Fact scratch, boolean keepFacts) {
+        if (keepFacts || !reuseFacts) {
+            return analysis.newInitialFact();
+        }
+        analysis.resetFact(scratch);
+        return scratch;
+    }
+
+    /**
+     * Result of the block-level solver. The facts of the nodes inside
+     * a block are recomputed from the IN fact of the block on demand,
+     * and the ones of the most recently queried block are cached,
+     * as the clients usually query the nodes of a block one after another.
+     */
+    private class BlockResult extends DataflowResult<Node, Fact> {
+
+        /**
+         * Facts of the nodes in the most recently queried block.
+         */
+        private volatile BlockFacts cache;
+
+        @Override
+        public Fact getInFact(Node node) {
+            return getFact(node, true);
+        }
+
+        @Override
+        public Fact getOutFact(Node node) {
+            return getFact(node, false);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Fact getFact(Node node, boolean in) {
+            Integer block = blockOf.get(node);
+            if (block == null) {
+                return null;
+            }
+            int index = indexInBlock.get(node);
+            if (in && index == 0) {
+                return (Fact) inFacts[block];
+            }
+            if (!in && index == blocks[block].length - 1) {
+                return (Fact) outFacts[block];
+            }
+            BlockFacts facts = cache;
+            if (facts == null || facts.block != block) {
+                facts = new BlockFacts(block, new Object[2 * blocks[block].length]);
+                // the OUT fact of the block is at the fixed point,
+                // thus transferring the block again does not change it
+                transferBlock(block, (Fact) inFacts[block],
+                        (Fact) outFacts[block], facts.facts);
+                cache = facts;
+            }
+            return (Fact) facts.facts[in ? 2 * index : 2 * index + 1];
+        }
+
+        @Override
+        public void setInFact(Node node, Fact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutFact(Node node, Fact fact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * IN and OUT facts of the nodes in a block, see {@link #transferBlock}.
+     */
+    private static class BlockFacts {
+
+        private final int block;
+
+        private final Object[] facts;
+
+        private BlockFacts(int block, Object[] facts) {
+            this.block = block;
+            this.facts = facts;
+        }
+    }
+}
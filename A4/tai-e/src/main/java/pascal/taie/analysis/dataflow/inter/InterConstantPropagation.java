@@ -71,6 +71,12 @@ public class InterConstantPropagation extends
         return cp.newInitialFact();
     }
 
+    @Override
+    public boolean resetFact(CPFact fact) {
+        fact.clear();
+        return true;
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         cp.meetInto(fact, target);
@@ -48,6 +48,17 @@ public interface InterDataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * Resets given fact to the initial fact, so that the solvers
+     * can reuse the fact as a scratch fact instead of creating a new one.
+     *
+     * @return true if the fact is reset, or false if this analysis does not
+     * support resetting facts, which is the default.
+     */
+    default boolean resetFact(Fact fact) {
+        return false;
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
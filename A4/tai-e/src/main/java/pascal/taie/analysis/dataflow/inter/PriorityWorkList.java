@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Work-list whose nodes are polled in the order of their priorities,
+ * which are fixed when the work-list is created.
+ * <p>
+ * Each node is present in the work-list at most once, i.e., adding a node
+ * that is already in the work-list has no effect.
+ */
+class PriorityWorkList implements WorkList {
+
+    /**
+     * Nodes indexed by their priorities.
+     */
+    private final int[] nodes;
+
+    /**
+     * Priorities of the nodes, indexed by the numbers of the nodes.
+     * Smaller value means higher priority.
+     */
+    private final int[] priorities;
+
+    /**
+     * Priorities of the nodes that are currently in this work-list.
+     */
+    private final BitSet pending;
+
+    /**
+     * Lower bound of the priorities in {@link #pending},
+     * which avoids scanning the bits that are known to be clear.
+     */
+    private int cursor = 0;
+
+    /**
+     * @param order    all nodes in the order of their priorities.
+     * @param capacity upper bound (exclusive) of the numbers of the nodes.
+     */
+    private PriorityWorkList(int[] order, int capacity) {
+        nodes = order;
+        priorities = new int[capacity];
+        Arrays.fill(priorities, -1);
+        for (int i = 0; i < order.length; ++i) {
+            priorities[order[i]] = i;
+        }
+        pending = new BitSet(order.length);
+    }
+
+    /**
+     * @return a work-list which polls nodes in reverse postorder of
+     * the ICFG, i.e., every node is processed after (most of) its
+     * predecessors, including the callees after the call sites.
+     * The nodes that are unreachable from the entry are placed after
+     * the reachable ones.
+     */
+    static PriorityWorkList reversePostorder(int[][] succs, int entry) {
+        int n = succs.length;
+        int[] order = new int[n];
+        int size = 0;
+        BitSet visited = new BitSet(n);
+        // iterative depth-first search, stack[i] is a node on the current
+        // path, and positions[i] is the next successor of it to visit
+        int[] stack = new int[n];
+        int[] positions = new int[n];
+        for (int i = -1; i < n; ++i) {
+            int root = i < 0 ? entry : i;
+            if (succs[root] == null || visited.get(root)) {
+                continue;
+            }
+            visited.set(root);
+            int start = size;
+            int top = 0;
+            stack[0] = root;
+            positions[0] = 0;
+            while (top >= 0) {
+                int node = stack[top];
+                if (positions[top] < succs[node].length) {
+                    int succ = succs[node][positions[top]++];
+                    if (!visited.get(succ)) {
+                        visited.set(succ);
+                        ++top;
+                        stack[top] = succ;
+                        positions[top] = 0;
+                    }
+                } else {
+                    order[size++] = node;
+                    --top;
+                }
+            }
+            // reverse the postorder of the nodes visited from this root
+            for (int lo = start, hi = size - 1; lo < hi; ++lo, --hi) {
+                int tmp = order[lo];
+                order[lo] = order[hi];
+                order[hi] = tmp;
+            }
+        }
+        return new PriorityWorkList(Arrays.copyOf(order, size), n);
+    }
+
+    @Override
+    public void add(int node) {
+        int priority = priorities[node];
+        pending.set(priority);
+        if (priority < cursor) {
+            cursor = priority;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Removes and returns the node with the highest priority.
+     * The client code should call {@link #isEmpty()} to check if this
+     * work-list is empty before calling this method.
+     */
+    @Override
+    public int poll() {
+        int priority = pending.nextSetBit(cursor);
+        pending.clear(priority);
+        cursor = priority + 1;
+        return nodes[priority];
+    }
+}
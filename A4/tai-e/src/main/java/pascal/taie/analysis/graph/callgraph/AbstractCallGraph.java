@@ -52,6 +52,30 @@ public abstract class AbstractCallGraph<CallSite, Method>
     protected final Set<Method> entryMethods = Sets.newSet();
     protected final Set<Method> reachableMethods = Sets.newSet();
 
+    /**
+     * Compact adjacency of this call graph, which is built by
+     * {@link #freeze()} and serves the queries of {@link pascal.taie.util.graph.Graph}.
+     */
+    private CSRAdjacency<CallSite, Method> adjacency;
+
+    /**
+     * Freezes this call graph. After freezing, the method-level successors,
+     * predecessors and edges are served from a compact representation
+     * without allocation, and this call graph must not be modified.
+     */
+    public void freeze() {
+        if (adjacency == null) {
+            adjacency = new CSRAdjacency<>(this);
+        }
+    }
+
+    /**
+     * @return true if this call graph has been frozen, otherwise false.
+     */
+    public boolean isFrozen() {
+        return adjacency != null;
+    }
+
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
         return Views.toMappedSet(calleeToEdges.get(callee), Edge::getCallSite);
@@ -64,6 +88,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getCalleesOfM(Method caller) {
+        if (adjacency != null) {
+            return adjacency.getSuccsOf(caller);
+        }
         return callSitesIn(caller)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
@@ -128,11 +155,17 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public boolean hasEdge(Method source, Method target) {
+        if (adjacency != null) {
+            return adjacency.hasEdge(source, target);
+        }
         return getSuccsOf(source).contains(target);
     }
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        if (adjacency != null) {
+            return adjacency.getInEdgesOf(method);
+        }
         return getCallersOf(method)
                 .stream()
                 .map(cs -> new MethodEdge<>(getContainerOf(cs), method, cs))
@@ -141,6 +174,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        if (adjacency != null) {
+            return adjacency.getOutEdgesOf(method);
+        }
         return callSitesIn(method)
                 .flatMap(cs -> getCalleesOf(cs)
                         .stream()
@@ -150,6 +186,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getPredsOf(Method node) {
+        if (adjacency != null) {
+            return adjacency.getPredsOf(node);
+        }
         return getCallersOf(node)
                 .stream()
                 .map(this::getContainerOf)
@@ -158,6 +197,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getSuccsOf(Method node) {
+        if (adjacency != null) {
+            return adjacency.getSuccsOf(node);
+        }
         return callSitesIn(node)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
@@ -25,25 +25,45 @@ package pascal.taie.analysis.graph.callgraph;
 import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 
+import java.util.ArrayDeque;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementation of the CHA algorithm.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
-    private ClassHierarchy hierarchy;
+    private SubtypeIndex subtypes;
+
+    private DispatchCache dispatchCache;
+
+    /**
+     * Whether to resolve the call sites of reachable methods in parallel.
+     */
+    private final boolean parallel;
+
+    CHABuilder(boolean parallel) {
+        this.parallel = parallel;
+    }
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        subtypes = new SubtypeIndex(World.get().getClassHierarchy());
+        dispatchCache = DispatchCache.get();
+        JMethod entry = World.get().getMainMethod();
+        return parallel ? buildCallGraphInParallel(entry) : buildCallGraph(entry);
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
@@ -78,23 +98,84 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
-    private Set<JClass> getSubClasses(JClass jClass) {
-        Set<JClass> jClasses = new HashSet<>();
+    /**
+     * Parallel version of {@link #buildCallGraph(JMethod)}. The reachable
+     * methods are discovered and their call sites are resolved concurrently
+     * by the work-stealing threads of a {@link ForkJoinPool}, and then the
+     * call graph is filled sequentially in breadth-first order from the entry,
+     * so that its contents are independent of thread scheduling.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        Set<JMethod> reachable = ConcurrentHashMap.newKeySet();
+        Map<JMethod, Map<Invoke, Set<JMethod>>> callees = new ConcurrentHashMap<>();
+        reachable.add(entry);
+        ForkJoinPool.commonPool().invoke(
+                new ResolveTask(null, entry, reachable, callees));
 
-        if (jClass.isInterface()) {
-            this.hierarchy.getDirectSubinterfacesOf(jClass).forEach(subClass -> {
-                jClasses.addAll(getSubClasses(subClass));
-            });
-            this.hierarchy.getDirectImplementorsOf(jClass).forEach(subClass -> {
-                jClasses.addAll(getSubClasses(subClass));
-            });
-        } else {
-            jClasses.add(jClass);
-            this.hierarchy.getDirectSubclassesOf(jClass).forEach(subClass -> {
-                jClasses.addAll(getSubClasses(subClass));
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        callGraph.addReachableMethod(entry);
+        Queue<JMethod> queue = new ArrayDeque<>();
+        queue.add(entry);
+        while (!queue.isEmpty()) {
+            JMethod caller = queue.poll();
+            callees.get(caller).forEach((callSite, targets) -> {
+                CallKind kind = CallGraphs.getCallKind(callSite);
+                targets.forEach(callee -> {
+                    callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                    if (callGraph.addReachableMethod(callee)) {
+                        queue.add(callee);
+                    }
+                });
             });
         }
-        return jClasses;
+        return callGraph;
+    }
+
+    /**
+     * Resolves the call sites in a method, and forks a task for each
+     * newly-discovered reachable method. The task completes when the
+     * tasks of all methods reachable from it have completed.
+     */
+    private class ResolveTask extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JMethod method;
+
+        private final Set<JMethod> reachable;
+
+        private final Map<JMethod, Map<Invoke, Set<JMethod>>> callees;
+
+        private ResolveTask(ResolveTask parent, JMethod method, Set<JMethod> reachable,
+                            Map<JMethod, Map<Invoke, Set<JMethod>>> callees) {
+            super(parent);
+            this.method = method;
+            this.reachable = reachable;
+            this.callees = callees;
+        }
+
+        @Override
+        public void compute() {
+            // call sites are kept in the order of statements
+            Map<Invoke, Set<JMethod>> result = new LinkedHashMap<>();
+            if (!method.isAbstract()) {
+                method.getIR().forEach(stmt -> {
+                    if (stmt instanceof Invoke callSite) {
+                        Set<JMethod> targets = resolve(callSite);
+                        result.put(callSite, targets);
+                        targets.forEach(target -> {
+                            if (reachable.add(target)) {
+                                addToPendingCount(1);
+                                new ResolveTask(this, target, reachable, callees).fork();
+                            }
+                        });
+                    }
+                });
+            }
+            callees.put(method, result);
+            tryComplete();
+        }
     }
 
     /**
@@ -102,7 +183,8 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private Set<JMethod> resolve(Invoke callSite) {
         // TODO - finish me
-        Set<JMethod> methods = new HashSet<>();
+        // keep the targets ordered, so that the parallel builder is deterministic
+        Set<JMethod> methods = new LinkedHashSet<>();
 
         MethodRef methodRef = callSite.getMethodRef();
         JClass clazz = methodRef.getDeclaringClass();
@@ -111,11 +193,10 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         if (callSite.isStatic()) {
             methods.add(clazz.getDeclaredMethod(subsignature));
         } else if (callSite.isSpecial()) {
-            methods.add(this.dispatch(clazz, subsignature));
+            methods.add(dispatchCache.dispatch(clazz, subsignature));
         } else if (callSite.isVirtual() || callSite.isInterface()) {
-            Set<JClass> subClasses = this.getSubClasses(clazz);
-            subClasses.forEach(subClass -> {
-                JMethod method = this.dispatch(subClass, subsignature);
+            subtypes.forEachSubclass(clazz, subClass -> {
+                JMethod method = dispatchCache.dispatch(subClass, subsignature);
                 if (method != null) {
                     methods.add(method);
                 }
@@ -123,26 +204,4 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         }
         return methods;
     }
-
-    /**
-     * Looks up the target method based on given class and method subsignature.
-     *
-     * @return the dispatched target method, or null if no satisfying method
-     * can be found.
-     */
-    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-        // TODO - finish me
-
-        JMethod jMethod = jclass.getDeclaredMethod(subsignature);
-        if (jMethod != null && !jMethod.isAbstract()) {
-            return jMethod;
-        } else {
-            jclass = jclass.getSuperClass();
-            if (jclass == null) {
-                return null;
-            } else {
-                return dispatch(jclass, subsignature);
-            }
-        }
-    }
 }
@@ -0,0 +1,277 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable method-level adjacency of a call graph in compressed-sparse-row
+ * form. The reachable methods are assigned dense ids, and the successors
+ * (or predecessors) of the method with id i are the ids in
+ * succs[succOffsets[i], succOffsets[i + 1]), which are sorted and distinct.
+ * The call edges are grouped by callers (or callees) with the same offsets
+ * scheme. The set views of each method are created up front, so that
+ * the queries do not allocate.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+class CSRAdjacency<CallSite, Method> {
+
+    /**
+     * Reachable methods, indexed by their ids.
+     */
+    private final Method[] methods;
+
+    private final Map<Method, Integer> ids;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final Set<Method>[] succSets;
+
+    private final Set<Method>[] predSets;
+
+    private final Set<MethodEdge<CallSite, Method>>[] outEdgeSets;
+
+    private final Set<MethodEdge<CallSite, Method>>[] inEdgeSets;
+
+    /**
+     * Compacts given call graph. The edges to the methods which are
+     * not reachable in the call graph are omitted.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CSRAdjacency(CallGraph<CallSite, Method> callGraph) {
+        int n = callGraph.getNumberOfMethods();
+        methods = (Method[]) callGraph.reachableMethods().toArray();
+        ids = Maps.newMap(n);
+        for (int i = 0; i < n; ++i) {
+            ids.put(methods[i], i);
+        }
+        // collect the call edges grouped by callers, and count the
+        // edges of each callee to compute the offsets of in edges
+        MethodEdge<CallSite, Method>[] outEdges = new MethodEdge[callGraph.getNumberOfEdges()];
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        int nEdges = 0;
+        for (int i = 0; i < n; ++i) {
+            outOffsets[i] = nEdges;
+            for (CallSite callSite : callGraph.getCallSitesIn(methods[i])) {
+                for (Method callee : callGraph.getCalleesOf(callSite)) {
+                    Integer calleeId = ids.get(callee);
+                    if (calleeId != null) {
+                        outEdges[nEdges++] = new MethodEdge<>(methods[i], callee, callSite);
+                        ++inOffsets[calleeId + 1];
+                    }
+                }
+            }
+        }
+        outOffsets[n] = nEdges;
+        for (int i = 0; i < n; ++i) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        MethodEdge<CallSite, Method>[] inEdges = new MethodEdge[nEdges];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int e = 0; e < nEdges; ++e) {
+            inEdges[next[ids.get(outEdges[e].callee())]++] = outEdges[e];
+        }
+        succOffsets = new int[n + 1];
+        predOffsets = new int[n + 1];
+        succs = compact(outEdges, outOffsets, true, succOffsets);
+        preds = compact(inEdges, inOffsets, false, predOffsets);
+        succSets = new Set[n];
+        predSets = new Set[n];
+        outEdgeSets = new Set[n];
+        inEdgeSets = new Set[n];
+        for (int i = 0; i < n; ++i) {
+            succSets[i] = new MethodSet(succs, succOffsets[i], succOffsets[i + 1]);
+            predSets[i] = new MethodSet(preds, predOffsets[i], predOffsets[i + 1]);
+            outEdgeSets[i] = new EdgeSet(outEdges, outOffsets[i], outOffsets[i + 1]);
+            inEdgeSets[i] = new EdgeSet(inEdges, inOffsets[i], inOffsets[i + 1]);
+        }
+    }
+
+    /**
+     * Converts the grouped edges to sorted and distinct ids of
+     * their targets (or sources), and fills the resulting offsets.
+     */
+    private int[] compact(MethodEdge<CallSite, Method>[] edges, int[] edgeOffsets,
+                          boolean byTarget, int[] offsets) {
+        int[] result = new int[edges.length];
+        int size = 0;
+        for (int i = 0; i + 1 < edgeOffsets.length; ++i) {
+            offsets[i] = size;
+            int start = size;
+            for (int e = edgeOffsets[i]; e < edgeOffsets[i + 1]; ++e) {
+                MethodEdge<CallSite, Method> edge = edges[e];
+                result[size++] = ids.get(byTarget ? edge.callee() : edge.caller());
+            }
+            Arrays.sort(result, start, size);
+            // remove the duplicates in place
+            int end = start;
+            for (int j = start; j < size; ++j) {
+                if (j == start || result[j] != result[j - 1]) {
+                    result[end++] = result[j];
+                }
+            }
+            size = end;
+        }
+        offsets[offsets.length - 1] = size;
+        return Arrays.copyOf(result, size);
+    }
+
+    boolean hasEdge(Method source, Method target) {
+        Integer sourceId = ids.get(source);
+        Integer targetId = ids.get(target);
+        return sourceId != null && targetId != null &&
+                Arrays.binarySearch(succs, succOffsets[sourceId],
+                        succOffsets[sourceId + 1], targetId) >= 0;
+    }
+
+    Set<Method> getSuccsOf(Method method) {
+        Integer id = ids.get(method);
+        return id != null ? succSets[id] : Set.of();
+    }
+
+    Set<Method> getPredsOf(Method method) {
+        Integer id = ids.get(method);
+        return id != null ? predSets[id] : Set.of();
+    }
+
+    Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        Integer id = ids.get(method);
+        return id != null ? outEdgeSets[id] : Set.of();
+    }
+
+    Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        Integer id = ids.get(method);
+        return id != null ? inEdgeSets[id] : Set.of();
+    }
+
+    /**
+     * Unmodifiable view of the methods whose ids are in a slice
+     * of sorted ids.
+     */
+    private class MethodSet extends AbstractSet<Method> {
+
+        private final int[] array;
+
+        private final int from;
+
+        private final int to;
+
+        private MethodSet(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = ids.get(o);
+            return id != null && Arrays.binarySearch(array, from, to, id) >= 0;
+        }
+
+        @Override
+        public Iterator<Method> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public Method next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    return methods[array[next++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Unmodifiable view of a slice of distinct call edges.
+     */
+    private class EdgeSet extends AbstractSet<MethodEdge<CallSite, Method>> {
+
+        private final MethodEdge<CallSite, Method>[] array;
+
+        private final int from;
+
+        private final int to;
+
+        private EdgeSet(MethodEdge<CallSite, Method>[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<MethodEdge<CallSite, Method>> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public MethodEdge<CallSite, Method> next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    return array[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -57,13 +57,20 @@ public class CallGraphBuilder extends ProgramAnalysis {
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            builder = new CHABuilder(
+                    getOptions().getBooleanOrDefault("parallel", false));
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            cg.freeze();
+        }
+        logger.info("{}", DispatchCache.get());
         takeAction(callGraph);
         return callGraph;
     }
@@ -37,6 +37,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      * Adds an entry method to this call graph.
      */
     public void addEntryMethod(JMethod entryMethod) {
+        checkNotFrozen();
         entryMethods.add(entryMethod);
     }
 
@@ -47,6 +48,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      * otherwise false.
      */
     public boolean addReachableMethod(JMethod method) {
+        checkNotFrozen();
         if (reachableMethods.add(method)) {
             if (!method.isAbstract()) {
                 method.getIR().forEach(stmt -> {
@@ -69,6 +71,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      * otherwise false.
      */
     public boolean addEdge(Edge<Invoke, JMethod> edge) {
+        checkNotFrozen();
         if (callSiteToEdges.put(edge.getCallSite(), edge)) {
             calleeToEdges.put(edge.getCallee(), edge);
             return true;
@@ -77,6 +80,12 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
         }
     }
 
+    private void checkNotFrozen() {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot modify frozen call graph");
+        }
+    }
+
     @Override
     public JMethod getContainerOf(Invoke invoke) {
         return invoke.getContainer();
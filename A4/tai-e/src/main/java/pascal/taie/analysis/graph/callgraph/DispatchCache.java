@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memo table of virtual dispatch, keyed by (receiver class, subsignature).
+ * The table is stored in current {@link World}, see {@link #get()}, and
+ * it is safe to be queried concurrently, which is required by the parallel
+ * mode of {@link CHABuilder}, as the dispatch table of the class hierarchy
+ * is not thread-safe. The numbers of hits and misses are recorded for tuning.
+ */
+public class DispatchCache {
+
+    private static final String KEY = "dispatch-cache";
+
+    /**
+     * Results of dispatch, where the failed dispatch is represented
+     * by empty Optional, as ConcurrentHashMap does not allow null values.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> table =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @return the dispatch cache of current World.
+     */
+    public static synchronized DispatchCache get() {
+        DispatchCache cache = World.get().getResult(KEY);
+        if (cache == null) {
+            cache = new DispatchCache();
+            World.get().storeResult(KEY, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Looks up the method which is dispatched on given class
+     * with given subsignature.
+     *
+     * @return the dispatched method, or null if no satisfying method
+     * can be found.
+     */
+    @Nullable
+    public JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, Optional<JMethod>> methods = table.computeIfAbsent(
+                jclass, unused -> new ConcurrentHashMap<>());
+        Optional<JMethod> method = methods.get(subsignature);
+        if (method != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            method = Optional.ofNullable(lookup(jclass, subsignature));
+            Optional<JMethod> prev = methods.putIfAbsent(subsignature, method);
+            if (prev != null) {
+                method = prev;
+            }
+        }
+        return method.orElse(null);
+    }
+
+    /**
+     * Looks up the non-abstract method in given class and its superclasses.
+     */
+    @Nullable
+    private static JMethod lookup(JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        long hits = getHits(), misses = getMisses();
+        long total = hits + misses;
+        return String.format("Dispatch cache: %d hits, %d misses (%.1f%% hit rate)",
+                hits, misses, total == 0 ? 0.0 : 100.0 * hits / total);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * It is similar to CHA, but virtual and interface calls are only
+ * dispatched to the classes which are instantiated by the {@link New}
+ * statements in the reachable methods. Array creations instantiate
+ * java.lang.Object, on which the methods of arrays are dispatched.
+ * <p>
+ * Some objects are allocated without {@link New} statements, i.e.,
+ * the argument array of main method, string constants and class literals,
+ * thus java.lang.Object, java.lang.String and java.lang.Class are treated
+ * as instantiated from the beginning. The objects created implicitly by
+ * the JVM or native code otherwise (e.g., the exceptions thrown by the JVM
+ * and the objects created via reflection) are not modeled, and the calls
+ * on them may miss targets.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private SubtypeIndex subtypes;
+
+    private DispatchCache dispatchCache;
+
+    private JClass object;
+
+    /**
+     * Classes which are instantiated without {@link New} statements.
+     */
+    private List<JClass> implicitlyInstantiated;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    /**
+     * Classes which are instantiated in reachable methods.
+     */
+    private Set<JClass> instantiated;
+
+    /**
+     * Map from class to the virtual and interface call sites (in reachable
+     * methods) whose method references are declared in the class.
+     * When a class is instantiated, these call sites are re-dispatched
+     * on it if it is a subclass of the declaring class.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        subtypes = new SubtypeIndex(World.get().getClassHierarchy());
+        dispatchCache = DispatchCache.get();
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        object = hierarchy.getJREClass("java.lang.Object");
+        implicitlyInstantiated = Stream.of(
+                        "java.lang.Object", "java.lang.String", "java.lang.Class")
+                .map(hierarchy::getJREClass)
+                .filter(Objects::nonNull)
+                .toList();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new ArrayDeque<>();
+        instantiated = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        implicitlyInstantiated.forEach(this::instantiate);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof New newStmt) {
+                        processNew(newStmt.getRValue());
+                    } else if (stmt instanceof Invoke callSite) {
+                        processInvoke(callSite);
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    private void processNew(NewExp newExp) {
+        JClass jclass = newExp instanceof NewInstance newInstance ?
+                newInstance.getType().getJClass() : object;
+        if (jclass != null) {
+            instantiate(jclass);
+        }
+    }
+
+    private void instantiate(JClass jclass) {
+        if (instantiated.add(jclass)) {
+            // dispatch the call sites processed so far on the new class
+            virtualCallSites.forEachSet((declaringClass, callSites) -> {
+                if (subtypes.isSubclass(declaringClass, jclass)) {
+                    callSites.forEach(callSite -> dispatch(callSite, jclass));
+                }
+            });
+        }
+    }
+
+    private void processInvoke(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        if (callSite.isStatic()) {
+            addEdge(callSite, declaringClass.getDeclaredMethod(
+                    methodRef.getSubsignature()));
+        } else if (callSite.isSpecial()) {
+            addEdge(callSite, dispatchCache.dispatch(
+                    declaringClass, methodRef.getSubsignature()));
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            virtualCallSites.put(declaringClass, callSite);
+            subtypes.forEachSubclass(declaringClass, subclass -> {
+                if (instantiated.contains(subclass)) {
+                    dispatch(callSite, subclass);
+                }
+            });
+        }
+    }
+
+    private void dispatch(Invoke callSite, JClass jclass) {
+        JMethod callee = dispatchCache.dispatch(
+                jclass, callSite.getMethodRef().getSubsignature());
+        if (callee != null) {
+            addEdge(callSite, callee);
+        }
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Index of the subtype closures of the classes in a class hierarchy.
+ * <p>
+ * The non-interface classes are assigned dense ids in the preorder
+ * of the class tree, so that the subclasses of each class (including
+ * itself) have consecutive ids, i.e., an interval [id, end).
+ * The classes which implement each interface (directly or via
+ * subinterfaces and subclasses) are precomputed as a bit set of ids.
+ * The index is immutable after construction, and thus can be
+ * queried concurrently.
+ */
+class SubtypeIndex {
+
+    /**
+     * Non-interface classes, indexed by their ids.
+     */
+    private final JClass[] classes;
+
+    /**
+     * Map from non-interface class to its id.
+     */
+    private final Map<JClass, Integer> ids;
+
+    /**
+     * Ends of the id intervals of the subclasses, indexed by class ids.
+     */
+    private final int[] ends;
+
+    /**
+     * Map from interface to the ids of the classes implementing it.
+     */
+    private final Map<JClass, BitSet> implementors;
+
+    SubtypeIndex(ClassHierarchy hierarchy) {
+        List<JClass> all = hierarchy.allClasses().toList();
+        int nClasses = (int) all.stream()
+                .filter(c -> !c.isInterface())
+                .count();
+        classes = new JClass[nClasses];
+        ids = Maps.newMap(nClasses);
+        ends = new int[nClasses];
+        int next = 0;
+        for (JClass jclass : all) {
+            if (!jclass.isInterface() && !ids.containsKey(jclass)) {
+                // start from the topmost unnumbered superclass, so that
+                // each class is numbered after its superclasses
+                JClass root = jclass;
+                JClass superclass;
+                while ((superclass = root.getSuperClass()) != null &&
+                        !ids.containsKey(superclass)) {
+                    root = superclass;
+                }
+                next = number(hierarchy, root, next);
+            }
+        }
+        implementors = Maps.newMap();
+        for (JClass jclass : all) {
+            if (jclass.isInterface()) {
+                computeImplementors(hierarchy, jclass);
+            }
+        }
+    }
+
+    /**
+     * Numbers the class tree rooted at given class in preorder.
+     *
+     * @return the next id after the numbered classes.
+     */
+    private int number(ClassHierarchy hierarchy, JClass root, int next) {
+        // iterative DFS, as the class tree can be deep
+        Deque<Iterator<JClass>> stack = new ArrayDeque<>();
+        Deque<Integer> starts = new ArrayDeque<>();
+        next = enter(root, next);
+        stack.push(hierarchy.getDirectSubclassesOf(root).iterator());
+        starts.push(next - 1);
+        while (!stack.isEmpty()) {
+            Iterator<JClass> subclasses = stack.peek();
+            if (subclasses.hasNext()) {
+                JClass subclass = subclasses.next();
+                if (!ids.containsKey(subclass)) {
+                    next = enter(subclass, next);
+                    stack.push(hierarchy.getDirectSubclassesOf(subclass).iterator());
+                    starts.push(next - 1);
+                }
+            } else {
+                stack.pop();
+                ends[starts.pop()] = next;
+            }
+        }
+        return next;
+    }
+
+    private int enter(JClass jclass, int id) {
+        classes[id] = jclass;
+        ids.put(jclass, id);
+        return id + 1;
+    }
+
+    private BitSet computeImplementors(ClassHierarchy hierarchy, JClass jinterface) {
+        BitSet result = implementors.get(jinterface);
+        if (result == null) {
+            result = new BitSet(classes.length);
+            for (JClass implementor : hierarchy.getDirectImplementorsOf(jinterface)) {
+                // the direct implementors of interface can be subinterfaces
+                if (implementor.isInterface()) {
+                    result.or(computeImplementors(hierarchy, implementor));
+                } else {
+                    int id = ids.get(implementor);
+                    result.set(id, ends[id]);
+                }
+            }
+            for (JClass subinterface : hierarchy.getDirectSubinterfacesOf(jinterface)) {
+                result.or(computeImplementors(hierarchy, subinterface));
+            }
+            implementors.put(jinterface, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if given non-interface class is a subclass of given class
+     * (or interface), in the same sense as {@link #forEachSubclass}.
+     */
+    boolean isSubclass(JClass jclass, JClass subclass) {
+        int subId = ids.get(subclass);
+        if (jclass.isInterface()) {
+            return implementors.get(jclass).get(subId);
+        } else {
+            int id = ids.get(jclass);
+            return id <= subId && subId < ends[id];
+        }
+    }
+
+    /**
+     * Performs given action for each subclass of given class. For a class,
+     * the subclasses are itself and its direct and indirect subclasses;
+     * for an interface, they are the classes which implement it directly
+     * or indirectly, i.e., the subinterfaces are excluded.
+     */
+    void forEachSubclass(JClass jclass, Consumer<JClass> action) {
+        if (jclass.isInterface()) {
+            BitSet bits = implementors.get(jclass);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                action.accept(classes[i]);
+            }
+        } else {
+            int id = ids.get(jclass);
+            for (int i = id; i < ends[id]; ++i) {
+                action.accept(classes[i]);
+            }
+        }
+    }
+}
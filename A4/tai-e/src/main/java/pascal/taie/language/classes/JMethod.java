@@ -60,7 +60,7 @@ public class JMethod extends ClassMember {
      */
     private final Object methodSource;
 
-    private IR ir;
+    private volatile IR ir;
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
@@ -149,18 +149,28 @@ public class JMethod extends ClassMember {
     }
 
     public IR getIR() {
-        if (ir == null) {
+        IR result = ir;
+        if (result == null) {
             if (isAbstract()) {
                 throw new AnalysisException("Abstract method " + this +
                         " has no method body");
             }
-            if (isNative()) {
-                ir = World.get().getNativeModel().buildNativeIR(this);
-            } else {
-                ir = World.get().getIRBuilder().buildIR(this);
+            // double-checked locking, so that the IR is built only once
+            // even if it is requested by multiple threads, e.g., by
+            // the parallel call graph builder
+            synchronized (this) {
+                result = ir;
+                if (result == null) {
+                    if (isNative()) {
+                        result = World.get().getNativeModel().buildNativeIR(this);
+                    } else {
+                        result = World.get().getIRBuilder().buildIR(this);
+                    }
+                    ir = result;
+                }
             }
         }
-        return ir;
+        return result;
     }
 
     /**
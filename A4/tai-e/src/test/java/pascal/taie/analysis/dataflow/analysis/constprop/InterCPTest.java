@@ -31,8 +31,12 @@ public class InterCPTest {
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
     void test(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false");
+    }
+
+    void test(String inputClass, String opts) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                opts, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -53,6 +57,26 @@ public class InterCPTest {
         test("Fibonacci");
     }
 
+    @Test
+    public void testFibonacciWithLIFOWorkList() {
+        test("Fibonacci", "edge-refine:false;alias-aware:false;worklist:lifo");
+    }
+
+    @Test
+    public void testFibonacciWithRPOWorkList() {
+        test("Fibonacci", "edge-refine:false;alias-aware:false;worklist:rpo");
+    }
+
+    @Test
+    public void testFibonacciWithBlockSolver() {
+        test("Fibonacci", "edge-refine:false;alias-aware:false;solver:block");
+    }
+
+    @Test
+    public void testExampleWithBlockSolver() {
+        test("Example", "edge-refine:false;alias-aware:false;solver:block");
+    }
+
     @Test
     public void testMultiIntArgs() {
         test("MultiIntArgs");
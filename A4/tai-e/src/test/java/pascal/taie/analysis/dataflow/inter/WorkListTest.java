@@ -0,0 +1,104 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WorkListTest {
+
+    /**
+     * Successors of the nodes of a small graph, where 0 is the entry,
+     * 1 -> 2 -> 1 is a loop, 3 is not given to any node,
+     * and 5 is unreachable from the entry.
+     */
+    private static final int[][] SUCCS = {
+            {1}, {2, 4}, {1}, null, {}, {4},
+    };
+
+    private static List<Integer> drain(WorkList workList) {
+        List<Integer> polled = new ArrayList<>();
+        while (!workList.isEmpty()) {
+            polled.add(workList.poll());
+        }
+        return polled;
+    }
+
+    private static WorkList addAll(String strategy, int... nodes) {
+        WorkList workList = WorkList.make(strategy, SUCCS, 0);
+        for (int node : nodes) {
+            workList.add(node);
+        }
+        return workList;
+    }
+
+    @Test
+    public void testFIFO() {
+        Assert.assertEquals(List.of(4, 1, 2),
+                drain(addAll(null, 4, 1, 4, 2)));
+        Assert.assertEquals(List.of(4, 1, 2),
+                drain(addAll("fifo", 4, 1, 4, 2)));
+    }
+
+    @Test
+    public void testLIFO() {
+        Assert.assertEquals(List.of(2, 1, 4),
+                drain(addAll("lifo", 4, 1, 4, 2)));
+    }
+
+    @Test
+    public void testRPO() {
+        // 2 is finished before 4 in the depth-first search from the entry
+        Assert.assertEquals(List.of(0, 1, 4, 2, 5),
+                drain(addAll("rpo", 5, 4, 2, 1, 0)));
+    }
+
+    @Test
+    public void testInterleaved() {
+        // the buffer of the deque wraps around when nodes are added
+        // after some nodes have been polled
+        WorkList fifo = addAll("fifo", 0, 1, 2, 4, 5);
+        Assert.assertEquals(0, fifo.poll());
+        Assert.assertEquals(1, fifo.poll());
+        fifo.add(0);
+        fifo.add(1);
+        Assert.assertEquals(List.of(2, 4, 5, 0, 1), drain(fifo));
+        // a node with higher priority is polled first even if the nodes
+        // after it have been polled
+        WorkList rpo = addAll("rpo", 2, 4);
+        Assert.assertEquals(4, rpo.poll());
+        rpo.add(1);
+        Assert.assertEquals(List.of(1, 2), drain(rpo));
+    }
+
+    @Test
+    public void testUnknownStrategy() {
+        Assert.assertThrows(ConfigException.class,
+                () -> WorkList.make("unknown", SUCCS, 0));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class CSRAdjacencyTest {
+
+    /**
+     * Call graph whose call sites are integers and methods are strings,
+     * so that it can be built without the program.
+     */
+    private static class TestCallGraph extends AbstractCallGraph<Integer, String> {
+
+        private void addMethod(String method) {
+            reachableMethods.add(method);
+        }
+
+        private void addCallSite(String method, int callSite) {
+            callSiteToContainer.put(callSite, method);
+            callSitesIn.put(method, callSite);
+        }
+
+        private void addEdge(int callSite, String callee) {
+            Edge<Integer, String> edge = new Edge<>(CallKind.VIRTUAL, callSite, callee);
+            if (callSiteToEdges.put(callSite, edge)) {
+                calleeToEdges.put(callee, edge);
+            }
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getResult(Stmt stmt) {
+            return Set.of();
+        }
+    }
+
+    /**
+     * Adjacency of a method before freezing, i.e., succs, preds,
+     * out edges and in edges.
+     */
+    private record Adjacency(Set<String> succs, Set<String> preds,
+                             Set<MethodEdge<Integer, String>> outEdges,
+                             Set<MethodEdge<Integer, String>> inEdges) {
+
+        private static Adjacency of(TestCallGraph cg, String method) {
+            return new Adjacency(new HashSet<>(cg.getSuccsOf(method)),
+                    new HashSet<>(cg.getPredsOf(method)),
+                    new HashSet<>(cg.getOutEdgesOf(method)),
+                    new HashSet<>(cg.getInEdgesOf(method)));
+        }
+    }
+
+    @Test
+    public void testFrozenEqualsUnfrozen() {
+        Random random = new Random(0);
+        for (int round = 0; round < 500; ++round) {
+            TestCallGraph cg = new TestCallGraph();
+            List<String> methods = new ArrayList<>();
+            int nMethods = 1 + random.nextInt(30);
+            for (int i = 0; i < nMethods; ++i) {
+                methods.add("m" + i);
+                cg.addMethod("m" + i);
+            }
+            int nCallSites = 0;
+            for (String method : methods) {
+                for (int j = random.nextInt(4); j > 0; --j) {
+                    cg.addCallSite(method, nCallSites++);
+                }
+            }
+            for (int callSite = 0; callSite < nCallSites; ++callSite) {
+                // call sites may share callees, and a callee may
+                // be called by several call sites of the same caller
+                for (int j = random.nextInt(4); j > 0; --j) {
+                    cg.addEdge(callSite, methods.get(random.nextInt(nMethods)));
+                }
+            }
+            Map<String, Adjacency> expected = new HashMap<>();
+            for (String method : methods) {
+                expected.put(method, Adjacency.of(cg, method));
+            }
+            Set<String> expectedNodes = new HashSet<>(cg.getNodes());
+            cg.freeze();
+            Assert.assertTrue(cg.isFrozen());
+            Assert.assertEquals(expectedNodes, cg.getNodes());
+            for (String method : methods) {
+                Adjacency adjacency = expected.get(method);
+                Assert.assertEquals(adjacency.succs(), cg.getSuccsOf(method));
+                Assert.assertEquals(adjacency.preds(), cg.getPredsOf(method));
+                Assert.assertEquals(adjacency.outEdges(), cg.getOutEdgesOf(method));
+                Assert.assertEquals(adjacency.inEdges(), cg.getInEdgesOf(method));
+                // the frozen sets contain no duplicates
+                Assert.assertEquals(adjacency.succs().size(), cg.getSuccsOf(method).size());
+                Assert.assertEquals(adjacency.outEdges().size(), cg.getOutEdgesOf(method).size());
+                for (String target : methods) {
+                    Assert.assertEquals(adjacency.succs().contains(target),
+                            cg.hasEdge(method, target));
+                }
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFrozenRejectsModification() {
+        DefaultCallGraph cg = new DefaultCallGraph();
+        cg.freeze();
+        // the endpoints are never touched, as frozen graph rejects
+        // the edge before looking into it
+        Edge<?, ?> edge = new Edge<>(CallKind.STATIC, 0, "m");
+        Assert.assertThrows(IllegalStateException.class,
+                () -> cg.addEdge((Edge<Invoke, JMethod>) edge));
+        Assert.assertThrows(IllegalStateException.class,
+                () -> cg.addReachableMethod(null));
+        Assert.assertThrows(IllegalStateException.class,
+                () -> cg.addEntryMethod(null));
+    }
+}
@@ -50,4 +50,10 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testInterfaceInParallel() {
+        Tests.test("Interface", "src/test/resources/cha/", "cg",
+                "algorithm:cha;parallel:true");
+    }
 }
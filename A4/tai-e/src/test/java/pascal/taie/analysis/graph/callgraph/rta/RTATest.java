@@ -0,0 +1,120 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.rta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The expected results are generated by {@link Tests}
+ * (see GENERATE_EXPECTED_RESULTS) instead of written by hand.
+ */
+public class RTATest {
+
+    protected static void test(String main) {
+        Tests.test(main, "src/test/resources/rta/", "cg", "algorithm:rta");
+    }
+
+    /**
+     * @return the call edges in the expected call graph of given test case,
+     * i.e., the targets of the call sites of each reachable method, where
+     * the keys are the method headers and call sites.
+     */
+    private static Map<String, Set<String>> readCallEdges(String dir, String main)
+            throws IOException {
+        Map<String, Set<String>> edges = new LinkedHashMap<>();
+        String method = null;
+        for (String line : Files.readAllLines(Path.of(
+                "src/test/resources", dir, main + "-cg-expected.txt"))) {
+            if (line.startsWith("----")) {
+                method = line;
+                edges.put(method, Set.of());
+            } else if (line.startsWith("[")) {
+                int i = line.lastIndexOf("; [");
+                Set<String> targets = Arrays.stream(line
+                                .substring(i + 3, line.length() - 1).split(", "))
+                        .collect(Collectors.toSet());
+                edges.put(method + line.substring(0, i), targets);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Checks that the expected call graph of RTA is contained in the one
+     * of CHA for the test cases shared with CHA, which guards the expected
+     * results of RTA against edges that CHA does not resolve.
+     */
+    private static void assertSubsetOfCHA(String main) throws IOException {
+        Map<String, Set<String>> rta = readCallEdges("rta", main);
+        Map<String, Set<String>> cha = readCallEdges("cha", main);
+        rta.forEach((key, targets) -> {
+            Assert.assertTrue("Not in CHA: " + key, cha.containsKey(key));
+            Assert.assertTrue("Targets not in CHA: " + key + " " + targets,
+                    cha.get(key).containsAll(targets));
+        });
+    }
+
+    @Test
+    public void testSubsetOfCHA() throws IOException {
+        assertSubsetOfCHA("Interface");
+        assertSubsetOfCHA("VirtualCall");
+    }
+
+    /**
+     * Only One is instantiated, thus RTA prunes the targets of
+     * Zero and Two, which are kept by CHA (see cha/Interface).
+     */
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    /**
+     * Only B is instantiated, thus RTA prunes the targets of
+     * C and D, which are kept by CHA (see cha/VirtualCall).
+     */
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    /**
+     * The receiver is a string constant, which is not created by
+     * any new statement, but still instantiates java.lang.String.
+     */
+    @Test
+    public void testStringCall() {
+        test("StringCall");
+    }
+}
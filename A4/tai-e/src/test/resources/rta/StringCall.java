@@ -0,0 +1,7 @@
+public class StringCall {
+
+    public static void main(String[] args) {
+        String s = "abc";
+        s.length();
+    }
+}
@@ -29,9 +29,17 @@ package pascal.taie.analysis.pta.ci;
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    private PointsToSet pointsToSet = new PointsToSet();
 
     PointsToSet getPointsToSet() {
         return pointsToSet;
     }
+
+    /**
+     * Sets the points-to set of this pointer. This is used to share
+     * a single points-to set among the pointers in a cycle of PFG.
+     */
+    void setPointsToSet(PointsToSet pointsToSet) {
+        this.pointsToSet = pointsToSet;
+    }
 }
@@ -30,7 +30,14 @@ import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -69,6 +76,24 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from a pointer (node) to its predecessors in PFG, which is used
+     * to redirect the edges into a cycle to its representative.
+     */
+    private final MultiMap<Pointer, Pointer> predecessors = Maps.newMultiMap();
+
+    /**
+     * Map from a merged pointer to the representative of its cycle.
+     * Representatives (including all pointers not in any merged cycle)
+     * are absent from this map.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Map from a representative to the other pointers merged into it.
+     */
+    private final MultiMap<Pointer, Pointer> mergedPointers = Maps.newMultiMap();
+
     /**
      * Returns all pointers in this PFG.
      */
@@ -122,19 +147,167 @@ class PointerFlowGraph {
     }
 
     /**
-     * Adds an edge (source -> target) to this PFG.
+     * Adds an edge (source -> target) to this PFG. The edge is added
+     * between the representatives of source and target, and it is
+     * ignored if source and target have been merged into the same node.
+     * As the edges are always kept between representatives, an edge whose
+     * target has been merged is the same as the edge to its representative.
      *
      * @return true if this PFG changed as a result of the call,
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer s = getRepresentative(source);
+        Pointer t = getRepresentative(target);
+        if (s != t && successors.put(s, t)) {
+            predecessors.put(t, s);
+            return true;
+        }
+        return false;
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * @return successors of given pointer in the PFG, which are all
+     * representatives.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRepresentative(pointer));
+    }
+
+    /**
+     * @return the representative of the node which given pointer
+     * has been merged into, or the pointer itself if it is not merged.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return representatives.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return the pointers merged into given representative,
+     * excluding the representative itself.
+     */
+    Set<Pointer> getMergedPointers(Pointer representative) {
+        return mergedPointers.get(representative);
+    }
+
+    /**
+     * Finds the cycles among the nodes reachable from given pointers.
+     * This runs Tarjan's algorithm in place over the successors of
+     * the representatives, and a node visited from one pointer is not
+     * visited again from the others, thus each call visits each node
+     * and edge at most once, and only the found cycles are materialized.
+     *
+     * @return the strongly connected components (of representatives)
+     * which consist of more than one node.
+     */
+    List<List<Pointer>> findCycles(Collection<Pointer> pointers) {
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Set<Pointer> onStack = Sets.newSet();
+        // the DFS path and the unvisited successors of the nodes on it
+        Deque<Pointer> path = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> succIters = new ArrayDeque<>();
+        List<List<Pointer>> cycles = new ArrayList<>();
+        for (Pointer pointer : pointers) {
+            Pointer start = getRepresentative(pointer);
+            if (indexes.containsKey(start)) {
+                continue;
+            }
+            Pointer next = start;
+            while (next != null || !path.isEmpty()) {
+                if (next != null) { // visit next
+                    int index = indexes.size();
+                    indexes.put(next, index);
+                    lowLinks.put(next, index);
+                    stack.push(next);
+                    onStack.add(next);
+                    path.push(next);
+                    succIters.push(successors.get(next).iterator());
+                    next = null;
+                }
+                Pointer node = path.peek();
+                Iterator<Pointer> succIter = succIters.peek();
+                if (succIter.hasNext()) {
+                    Pointer succ = succIter.next();
+                    if (!indexes.containsKey(succ)) {
+                        next = succ;
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(
+                                lowLinks.get(node), indexes.get(succ)));
+                    }
+                    continue;
+                }
+                // all successors of node have been visited
+                path.pop();
+                succIters.pop();
+                int lowLink = lowLinks.get(node);
+                if (lowLink == indexes.get(node)) {
+                    List<Pointer> scc = new ArrayList<>();
+                    Pointer p;
+                    do {
+                        p = stack.pop();
+                        onStack.remove(p);
+                        scc.add(p);
+                    } while (p != node);
+                    if (scc.size() > 1) {
+                        cycles.add(scc);
+                    }
+                }
+                if (!path.isEmpty()) {
+                    Pointer parent = path.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Merges the nodes of given cycle (of representatives) into one node.
+     * The edges from/to the nodes in the cycle are redirected to the
+     * merged node, and the edges inside the cycle are removed.
+     *
+     * @return the representative of the merged node.
+     */
+    Pointer mergeCycle(List<Pointer> cycle) {
+        // choose the node with most merged pointers as the representative,
+        // so that less pointers need to be relabeled
+        Pointer rep = cycle.stream()
+                .max(Comparator.comparingInt(p -> mergedPointers.get(p).size()))
+                .orElseThrow();
+        for (Pointer p : cycle) {
+            if (p != rep) {
+                for (Pointer merged : mergedPointers.get(p)) {
+                    representatives.put(merged, rep);
+                    mergedPointers.put(rep, merged);
+                }
+                mergedPointers.removeAll(p);
+                representatives.put(p, rep);
+                mergedPointers.put(rep, p);
+            }
+        }
+        // relabel the edges after all nodes of the cycle are merged,
+        // so that the edges inside the cycle map to rep and are dropped
+        for (Pointer p : cycle) {
+            for (Pointer succ : List.copyOf(successors.get(p))) {
+                removeEdge(p, succ);
+                if (getRepresentative(succ) != rep) {
+                    addEdge(rep, succ);
+                }
+            }
+            for (Pointer pred : List.copyOf(predecessors.get(p))) {
+                removeEdge(pred, p);
+                if (getRepresentative(pred) != rep) {
+                    addEdge(pred, rep);
+                }
+            }
+        }
+        return rep;
+    }
+
+    private void removeEdge(Pointer source, Pointer target) {
+        successors.remove(source, target);
+        predecessors.remove(target, source);
     }
 }
@@ -60,6 +60,16 @@ class PointsToSet implements Iterable<Obj> {
         return set.add(obj);
     }
 
+    /**
+     * Adds all objects in given points-to set to this set.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addAll(PointsToSet pts) {
+        return set.addAll(pts.set);
+    }
+
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
@@ -36,8 +36,14 @@ import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
 class Solver {
 
@@ -45,6 +51,11 @@ class Solver {
 
     private final HeapModel heapModel;
 
+    /**
+     * Whether to merge the cycles of PFG during the analysis.
+     */
+    private final boolean cycleElimination;
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -55,8 +66,19 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * PFG edges which have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    /**
+     * Pointers from which cycle detection will start.
+     */
+    private Queue<Pointer> cycleCandidates;
+
+    Solver(HeapModel heapModel, boolean cycleElimination) {
         this.heapModel = heapModel;
+        this.cycleElimination = cycleElimination;
     }
 
     /**
@@ -76,6 +98,8 @@ class Solver {
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
+        checkedEdges = Maps.newMultiMap();
+        cycleCandidates = new ArrayDeque<>();
         // initialize main method
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
@@ -161,9 +185,7 @@ class Solver {
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
 
-        if (!this.pointerFlowGraph.getSuccsOf(source).contains(target)) {
-            this.pointerFlowGraph.addEdge(source, target);
-
+        if (this.pointerFlowGraph.addEdge(source, target)) {
             PointsToSet pointsToSet = source.getPointsToSet();
             if (!pointsToSet.isEmpty()) {
                 this.workList.addEntry(target, pointsToSet);
@@ -178,36 +200,52 @@ class Solver {
         // TODO - finish me
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
-            PointsToSet delta = this.propagate(entry.pointer(), entry.pointsToSet());
-
-            if (delta.size() > 0 && entry.pointer() instanceof VarPtr varPtr) {
-                delta.forEach(obj -> {
-                    // x.field = y
-                    varPtr.getVar().getStoreFields().forEach(storeField -> {
-                        this.addPFGEdge(this.pointerFlowGraph.getVarPtr(storeField.getRValue()), this.pointerFlowGraph.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve()));
-                    });
-
-                    // x = y.field
-                    varPtr.getVar().getLoadFields().forEach(loadField -> {
-                        this.addPFGEdge(this.pointerFlowGraph.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve()), this.pointerFlowGraph.getVarPtr(loadField.getLValue()));
-                    });
-
-                    // x[y] = z
-                    varPtr.getVar().getStoreArrays().forEach(storeArray -> {
-                        this.addPFGEdge(this.pointerFlowGraph.getVarPtr(storeArray.getRValue()), this.pointerFlowGraph.getArrayIndex(obj));
-                    });
-
-                    // x = y[z]
-                    varPtr.getVar().getLoadArrays().forEach(loadArray -> {
-                        this.addPFGEdge(this.pointerFlowGraph.getArrayIndex(obj), this.pointerFlowGraph.getVarPtr(loadArray.getLValue()));
-                    });
-
-                    this.processCall(varPtr.getVar(), obj);
-                });
+            // the pointer may have been merged into a cycle
+            Pointer pointer = this.pointerFlowGraph.getRepresentative(entry.pointer());
+            PointsToSet delta = this.propagate(pointer, entry.pointsToSet());
+
+            if (delta.size() > 0) {
+                this.processNewObjects(pointer, delta);
+                this.pointerFlowGraph.getMergedPointers(pointer)
+                        .forEach(merged -> this.processNewObjects(merged, delta));
+            }
+            if (!this.cycleCandidates.isEmpty()) {
+                this.eliminateCycles();
             }
         }
     }
 
+    /**
+     * Processes the objects newly pointed by the pointer.
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet delta) {
+        if (pointer instanceof VarPtr varPtr) {
+            delta.forEach(obj -> {
+                // x.field = y
+                varPtr.getVar().getStoreFields().forEach(storeField -> {
+                    this.addPFGEdge(this.pointerFlowGraph.getVarPtr(storeField.getRValue()), this.pointerFlowGraph.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve()));
+                });
+
+                // x = y.field
+                varPtr.getVar().getLoadFields().forEach(loadField -> {
+                    this.addPFGEdge(this.pointerFlowGraph.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve()), this.pointerFlowGraph.getVarPtr(loadField.getLValue()));
+                });
+
+                // x[y] = z
+                varPtr.getVar().getStoreArrays().forEach(storeArray -> {
+                    this.addPFGEdge(this.pointerFlowGraph.getVarPtr(storeArray.getRValue()), this.pointerFlowGraph.getArrayIndex(obj));
+                });
+
+                // x = y[z]
+                varPtr.getVar().getLoadArrays().forEach(loadArray -> {
+                    this.addPFGEdge(this.pointerFlowGraph.getArrayIndex(obj), this.pointerFlowGraph.getVarPtr(loadArray.getLValue()));
+                });
+
+                this.processCall(varPtr.getVar(), obj);
+            });
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -223,13 +261,67 @@ class Solver {
         });
 
         if (delta.size() > 0) {
+            int oldSize = pointer.getPointsToSet().size() - delta.size();
             this.pointerFlowGraph.getSuccsOf(pointer).forEach(succsPointer -> {
                 this.workList.addEntry(succsPointer, delta);
+                // lazy cycle detection: the successor pointing to the same
+                // objects as the pointer (before this propagation) hints that
+                // they may be in a cycle, which is checked once per edge
+                if (this.cycleElimination && oldSize > 0
+                        && succsPointer.getPointsToSet().size() == oldSize
+                        && this.checkedEdges.put(pointer, succsPointer)) {
+                    this.cycleCandidates.add(succsPointer);
+                }
             });
         }
         return delta;
     }
 
+    /**
+     * Detects the cycles from the candidate pointers, and merges each cycle
+     * into one node whose pointers share a single points-to set.
+     */
+    private void eliminateCycles() {
+        List<Pointer> candidates = new ArrayList<>(this.cycleCandidates);
+        this.cycleCandidates.clear();
+        this.pointerFlowGraph.findCycles(candidates).forEach(this::mergeCycle);
+    }
+
+    private void mergeCycle(List<Pointer> cycle) {
+        PointsToSet union = new PointsToSet();
+        cycle.forEach(pointer -> union.addAll(pointer.getPointsToSet()));
+        // the objects which are new to each node in the cycle
+        Map<Pointer, PointsToSet> diffs = Maps.newMap();
+        Map<Pointer, List<Pointer>> members = Maps.newMap();
+        for (Pointer pointer : cycle) {
+            PointsToSet diff = new PointsToSet();
+            union.forEach(obj -> {
+                if (!pointer.getPointsToSet().contains(obj)) {
+                    diff.addObject(obj);
+                }
+            });
+            diffs.put(pointer, diff);
+            List<Pointer> pointers = new ArrayList<>(
+                    this.pointerFlowGraph.getMergedPointers(pointer));
+            pointers.add(pointer);
+            members.put(pointer, pointers);
+        }
+        Pointer rep = this.pointerFlowGraph.mergeCycle(cycle);
+        PointsToSet pointsToSet = rep.getPointsToSet();
+        pointsToSet.addAll(union);
+        members.values().forEach(pointers -> pointers.forEach(
+                pointer -> pointer.setPointsToSet(pointsToSet)));
+        for (Pointer pointer : cycle) {
+            PointsToSet diff = diffs.get(pointer);
+            if (!diff.isEmpty()) {
+                members.get(pointer).forEach(
+                        member -> this.processNewObjects(member, diff));
+            }
+        }
+        this.pointerFlowGraph.getSuccsOf(rep).forEach(succsPointer ->
+                this.workList.addEntry(succsPointer, pointsToSet));
+    }
+
     private void processCallEdge(Invoke invoke, JMethod method) {
         if (!this.callGraph.getCalleesOf(invoke).contains(method)) {
             this.addReachable(method);
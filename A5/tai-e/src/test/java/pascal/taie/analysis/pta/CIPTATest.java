@@ -78,4 +78,14 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testMergeParamWithCycleElimination() {
+        Tests.testCIPTA(DIR, "MergeParam", "cycle-elimination:true");
+    }
+
+    @Test
+    public void testCycleWithCycleElimination() {
+        Tests.testCIPTAWithOption(DIR, "Cycle", "cycle-elimination:true");
+    }
 }
@@ -25,8 +25,13 @@ package pascal.taie.analysis;
 import pascal.taie.Main;
 import pascal.taie.analysis.misc.ClassDumper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -52,18 +57,51 @@ public final class Tests {
         doTestPTA("cspta", dir, main, opts);
     }
 
+    /**
+     * Runs cspta on given test case without and with given option,
+     * and checks that the option does not change the results. This is
+     * used for the options which should only affect the efficiency.
+     */
+    public static void testCSPTAWithOption(
+            String dir, String main, String option, String... opts) {
+        doTestPTAWithOption("cspta", dir, main, option, opts);
+    }
+
     private static void doTestPTA(
             String id, String dir, String main, String... opts) {
+        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
+        String file = getExpectedFile(getClassPath(dir), main, id);
+        runPTA(id, dir, main, action, file, opts);
+    }
+
+    private static void doTestPTAWithOption(
+            String id, String dir, String main, String option, String... opts) {
+        Path file;
+        try {
+            file = Files.createTempFile(main + "-" + id + "-", ".txt");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            runPTA(id, dir, main, "dump", file.toString(), opts);
+            String[] optsWithOption = Arrays.copyOf(opts, opts.length + 1);
+            optsWithOption[opts.length] = option;
+            runPTA(id, dir, main, "compare", file.toString(), optsWithOption);
+        } finally {
+            file.toFile().delete();
+        }
+    }
+
+    private static void runPTA(String id, String dir, String main,
+                               String action, String file, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
-        String classPath = "src/test/resources/pta/" + dir;
+        String classPath = getClassPath(dir);
         Collections.addAll(args, "-cp", classPath);
         Collections.addAll(args, "-m", main);
         List<String> ptaArgs = new ArrayList<>();
         ptaArgs.add("implicit-entries:false");
-        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
         ptaArgs.add("action:" + action);
-        String file = getExpectedFile(classPath, main, id);
         ptaArgs.add("file:" + file);
         boolean specifyOnlyApp = false;
         for (String opt : opts) {
@@ -84,6 +122,10 @@ public final class Tests {
         Main.main(args.toArray(new String[0]));
     }
 
+    private static String getClassPath(String dir) {
+        return "src/test/resources/pta/" + dir;
+    }
+
     /**
      * @param dir  the directory containing the test case
      * @param main main class of the test case
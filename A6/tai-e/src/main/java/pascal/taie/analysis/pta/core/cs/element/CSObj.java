@@ -24,17 +24,21 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.Indexable;
 
 /**
  * Represents context-sensitive objects.
  */
-public class CSObj extends AbstractCSElement {
+public class CSObj extends AbstractCSElement implements Indexable {
 
     private final Obj obj;
 
-    CSObj(Obj obj, Context context) {
+    private final int index;
+
+    CSObj(Obj obj, Context context, int index) {
         super(context);
         this.obj = obj;
+        this.index = index;
     }
 
     /**
@@ -44,6 +48,15 @@ public class CSObj extends AbstractCSElement {
         return obj;
     }
 
+    /**
+     * @return the index of this object, which is assigned by
+     * {@link CSManager} and is unique among all objects of the manager.
+     */
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return context + ":" + obj;
@@ -38,8 +38,8 @@ import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.IndexedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
-import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
@@ -62,8 +62,14 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
 class Solver {
 
@@ -77,6 +83,8 @@ class Solver {
 
     private CSManager csManager;
 
+    private PointsToSetFactory ptsFactory;
+
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -85,6 +93,21 @@ class Solver {
 
     private PointerAnalysisResult result;
 
+    /**
+     * Whether to merge the cycles of PFG during the analysis.
+     */
+    private boolean cycleElimination;
+
+    /**
+     * PFG edges which have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    /**
+     * Pointers from which cycle detection will start.
+     */
+    private Queue<Pointer> cycleCandidates;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
@@ -98,10 +121,14 @@ class Solver {
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = new IndexedCSManager(options.getString("pts"));
+        ptsFactory = csManager.getPointsToSetFactory();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        workList = new WorkList(ptsFactory);
+        cycleElimination = options.getBooleanOrDefault("cycle-elimination", false);
+        checkedEdges = Maps.newMultiMap();
+        cycleCandidates = new ArrayDeque<>();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -143,9 +170,9 @@ class Solver {
             // x = new T()
             Obj obj = Solver.this.heapModel.getObj(stmt);
             Context objContext = Solver.this.contextSelector.selectHeapContext(this.csMethod, obj);
-            PointsToSet pointsToSet = PointsToSetFactory.make(Solver.this.csManager.getCSObj(objContext, obj));
+            CSObj csObj = Solver.this.csManager.getCSObj(objContext, obj);
             Pointer pointer = Solver.this.csManager.getCSVar(this.context, stmt.getLValue());
-            Solver.this.workList.addEntry(pointer, pointsToSet);
+            Solver.this.workList.addEntry(pointer, csObj);
             return null;
         }
 
@@ -187,7 +214,8 @@ class Solver {
                 CSCallSite csCallSite = Solver.this.csManager.getCSCallSite(this.context, stmt);
                 JMethod method = Solver.this.resolveCallee(null, stmt);
                 Context calleeContext = Solver.this.contextSelector.selectContext(csCallSite, method);
-                Solver.this.processCallEdge(csCallSite, Solver.this.csManager.getCSMethod(calleeContext, method));
+                CSMethod csMethod = Solver.this.csManager.getCSMethod(calleeContext, method);
+                Solver.this.workList.addCallEdge(new Edge<>(CallGraphs.getCallKind(stmt), csCallSite, csMethod));
             }
             return null;
         }
@@ -199,9 +227,7 @@ class Solver {
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
 
-        if (!this.pointerFlowGraph.getSuccsOf(source).contains(target)) {
-            this.pointerFlowGraph.addEdge(source, target);
-
+        if (this.pointerFlowGraph.addEdge(source, target)) {
             PointsToSet pointsToSet = source.getPointsToSet();
             if (!pointsToSet.isEmpty()) {
                 this.workList.addEntry(target, pointsToSet);
@@ -216,69 +242,137 @@ class Solver {
         // TODO - finish me
 
         while (!workList.isEmpty()) {
+            if (!workList.hasEntries()) {
+                // process call edges after the pending pointers, so that
+                // the new PFG edges meet the points-to sets as large as
+                // possible, and thus less entries are created for them
+                this.processCallEdge(workList.pollCallEdge());
+                continue;
+            }
             WorkList.Entry entry = workList.pollEntry();
-            PointsToSet delta = this.propagate(entry.pointer(), entry.pointsToSet());
-
-            if (delta.size() > 0 && entry.pointer() instanceof CSVar csVar) {
-                delta.forEach(obj -> {
-                    Var var = csVar.getVar();
-                    Context context = csVar.getContext();
-
-                    // x.field = y
-                    var.getStoreFields().forEach(storeField -> {
-                        this.addPFGEdge(this.csManager.getCSVar(context, storeField.getRValue()), this.csManager.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve()));
-                    });
-
-                    // x = y.field
-                    var.getLoadFields().forEach(loadField -> {
-                        this.addPFGEdge(this.csManager.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve()), this.csManager.getCSVar(context, loadField.getLValue()));
-                    });
-
-                    // x[y] = z
-                    var.getStoreArrays().forEach(storeArray -> {
-                        this.addPFGEdge(this.csManager.getCSVar(context, storeArray.getRValue()), this.csManager.getArrayIndex(obj));
-                    });
-
-                    // x = y[z]
-                    var.getLoadArrays().forEach(loadArray -> {
-                        this.addPFGEdge(this.csManager.getArrayIndex(obj), this.csManager.getCSVar(context, loadArray.getLValue()));
-                    });
-
-                    this.processCall(csVar, obj);
-                });
+            // the pointer may have been merged into a cycle
+            Pointer pointer = this.pointerFlowGraph.getRepresentative(entry.pointer());
+            PointsToSet delta = this.propagate(pointer, entry.pointsToSet());
+
+            if (!delta.isEmpty()) {
+                this.processNewObjects(pointer, delta);
+                this.pointerFlowGraph.getMergedPointers(pointer)
+                        .forEach(merged -> this.processNewObjects(merged, delta));
+            }
+            if (!this.cycleCandidates.isEmpty()) {
+                this.eliminateCycles();
             }
         }
     }
 
+    /**
+     * Processes the objects newly pointed by the pointer.
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet delta) {
+        if (pointer instanceof CSVar csVar) {
+            delta.forEach(obj -> {
+                Var var = csVar.getVar();
+                Context context = csVar.getContext();
+
+                // x.field = y
+                var.getStoreFields().forEach(storeField -> {
+                    this.addPFGEdge(this.csManager.getCSVar(context, storeField.getRValue()), this.csManager.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve()));
+                });
+
+                // x = y.field
+                var.getLoadFields().forEach(loadField -> {
+                    this.addPFGEdge(this.csManager.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve()), this.csManager.getCSVar(context, loadField.getLValue()));
+                });
+
+                // x[y] = z
+                var.getStoreArrays().forEach(storeArray -> {
+                    this.addPFGEdge(this.csManager.getCSVar(context, storeArray.getRValue()), this.csManager.getArrayIndex(obj));
+                });
+
+                // x = y[z]
+                var.getLoadArrays().forEach(loadArray -> {
+                    this.addPFGEdge(this.csManager.getArrayIndex(obj), this.csManager.getCSVar(context, loadArray.getLValue()));
+                });
+
+                this.processCall(csVar, obj);
+            });
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet delta = PointsToSetFactory.make();
-        pointsToSet.forEach(obj -> {
-            if (!pointer.getPointsToSet().contains(obj)) {
-                pointer.getPointsToSet().addObject(obj);
-                delta.addObject(obj);
-            }
-        });
-
-        if (delta.size() > 0) {
+        PointsToSet delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        if (!delta.isEmpty()) {
+            int oldSize = pointer.getPointsToSet().size() - delta.size();
             this.pointerFlowGraph.getSuccsOf(pointer).forEach(succsPointer -> {
                 this.workList.addEntry(succsPointer, delta);
+                // lazy cycle detection: the successor pointing to the same
+                // objects as the pointer (before this propagation) hints that
+                // they may be in a cycle, which is checked once per edge
+                if (this.cycleElimination && oldSize > 0
+                        && succsPointer.getPointsToSet().size() == oldSize
+                        && this.checkedEdges.put(pointer, succsPointer)) {
+                    this.cycleCandidates.add(succsPointer);
+                }
             });
         }
         return delta;
     }
 
-    private void processCallEdge(CSCallSite csCallSite, CSMethod csMethod) {
+    /**
+     * Detects the cycles from the candidate pointers, and merges each cycle
+     * into one node whose pointers share a single points-to set.
+     */
+    private void eliminateCycles() {
+        List<Pointer> candidates = new ArrayList<>(this.cycleCandidates);
+        this.cycleCandidates.clear();
+        this.pointerFlowGraph.findCycles(candidates).forEach(this::mergeCycle);
+    }
+
+    private void mergeCycle(List<Pointer> cycle) {
+        PointsToSet union = ptsFactory.make();
+        cycle.forEach(pointer -> union.addAll(pointer.getPointsToSet()));
+        // the objects which are new to each node in the cycle
+        Map<Pointer, PointsToSet> diffs = Maps.newMap();
+        Map<Pointer, List<Pointer>> members = Maps.newMap();
+        for (Pointer pointer : cycle) {
+            PointsToSet pointsToSet = ptsFactory.make();
+            pointsToSet.addAll(pointer.getPointsToSet());
+            diffs.put(pointer, pointsToSet.addAllDiff(union));
+            List<Pointer> pointers = new ArrayList<>(
+                    this.pointerFlowGraph.getMergedPointers(pointer));
+            pointers.add(pointer);
+            members.put(pointer, pointers);
+        }
+        Pointer rep = this.pointerFlowGraph.mergeCycle(cycle);
+        PointsToSet pointsToSet = rep.getPointsToSet();
+        pointsToSet.addAll(union);
+        members.values().forEach(pointers -> pointers.forEach(
+                pointer -> pointer.setPointsToSet(pointsToSet)));
+        for (Pointer pointer : cycle) {
+            PointsToSet diff = diffs.get(pointer);
+            if (!diff.isEmpty()) {
+                members.get(pointer).forEach(
+                        member -> this.processNewObjects(member, diff));
+            }
+        }
+        this.pointerFlowGraph.getSuccsOf(rep).forEach(succsPointer ->
+                this.workList.addEntry(succsPointer, pointsToSet));
+    }
+
+    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        CSCallSite csCallSite = edge.getCallSite();
+        CSMethod csMethod = edge.getCallee();
         if (!this.callGraph.getCalleesOf(csCallSite).contains(csMethod)) {
             Context callerContext = csCallSite.getContext();
             Context calleeContext = csMethod.getContext();
 
             this.addReachable(csMethod);
-            this.callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(csCallSite.getCallSite()), csCallSite, csMethod));
+            this.callGraph.addEdge(edge);
 
             List<Var> actualArgs = csCallSite.getCallSite().getInvokeExp().getArgs();
             List<Var> formalArgs = csMethod.getMethod().getIR().getParams();
@@ -310,8 +404,10 @@ class Solver {
             JMethod method = this.resolveCallee(recvObj, invoke);
             CSCallSite csCallSite = this.csManager.getCSCallSite(callerContext, invoke);
             Context calleeContext = this.contextSelector.selectContext(csCallSite, recvObj, method);
-            this.workList.addEntry(this.csManager.getCSVar(calleeContext, method.getIR().getThis()), PointsToSetFactory.make(recvObj));
-            this.processCallEdge(csCallSite, this.csManager.getCSMethod(calleeContext, method));
+            this.workList.addEntry(this.csManager.getCSVar(calleeContext, method.getIR().getThis()), recvObj);
+
+            CSMethod csMethod = this.csManager.getCSMethod(calleeContext, method);
+            this.workList.addCallEdge(new Edge<>(CallGraphs.getCallKind(invoke), csCallSite, csMethod));
         });
     }
 
@@ -22,39 +22,115 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The objects added for the same pointer are coalesced into a single
+ * pending set, and the pointer is queued only once until its entry is
+ * polled, so that each pointer is propagated at most once per round.
+ * Besides, the work list holds the pending call edges in a separate queue.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    private final Queue<Pointer> pointers = new ArrayDeque<>();
+
+    private final Map<Pointer, PointsToSet> pendings = Maps.newMap();
+
+    private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
+
+    /**
+     * Factory of the pending points-to sets.
+     */
+    private final PointsToSetFactory ptsFactory;
+
+    WorkList(PointsToSetFactory ptsFactory) {
+        this.ptsFactory = ptsFactory;
+    }
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        getPending(pointer).addAll(pointsToSet);
+    }
+
+    /**
+     * Adds an entry which consists of a pointer and a single object
+     * to the work list. The object is skipped if the pointer
+     * already points to it.
+     */
+    void addEntry(Pointer pointer, CSObj obj) {
+        if (!pointer.getPointsToSet().contains(obj)) {
+            getPending(pointer).addObject(obj);
+        }
+    }
+
+    /**
+     * @return the pending points-to set of given pointer, and queues
+     * the pointer if it has no pending set.
+     */
+    private PointsToSet getPending(Pointer pointer) {
+        PointsToSet pending = pendings.get(pointer);
+        if (pending == null) {
+            // the points-to sets given to addEntry() may be shared by
+            // other entries, thus we merge them into a new set
+            pending = ptsFactory.make();
+            pendings.put(pointer, pending);
+            pointers.add(pointer);
+        }
+        return pending;
+    }
+
+    /**
+     * Adds a call edge to the work list.
+     */
+    void addCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        callEdges.add(edge);
     }
 
     /**
      * Retrieves and removes an entry from this queue, or returns null
-     * if this work list is empty.
+     * if there is no pending pointers.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Pointer pointer = pointers.poll();
+        return pointer == null ? null :
+                new Entry(pointer, pendings.remove(pointer));
+    }
+
+    /**
+     * Retrieves and removes a call edge from this queue, or returns null
+     * if there is no pending call edges.
+     */
+    Edge<CSCallSite, CSMethod> pollCallEdge() {
+        return callEdges.poll();
+    }
+
+    /**
+     * @return true if there is pending pointers, otherwise false.
+     */
+    boolean hasEntries() {
+        return !pointers.isEmpty();
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return pointers.isEmpty() && callEdges.isEmpty();
     }
 
     /**
@@ -22,27 +22,66 @@
 
 package pascal.taie.analysis.pta.pts;
 
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.util.Set;
 import java.util.function.Supplier;
 
 /**
- * Provides static factory methods for {@link PointsToSet}.
+ * Factory of {@link PointsToSet}. Each pointer analysis owns its factory
+ * (via {@link CSManager#getPointsToSetFactory()}), so that the kind of
+ * the sets and the objects they refer to do not outlive the analysis.
  */
 public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
-    public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+    private static final PointsToSetFactory HYBRID = new PointsToSetFactory(
+            () -> new DelegatePointsToSet(setFactory.get()));
+
+    private final Supplier<PointsToSet> ptsFactory;
+
+    private PointsToSetFactory(Supplier<PointsToSet> ptsFactory) {
+        this.ptsFactory = ptsFactory;
+    }
+
+    /**
+     * @return the factory of the sets backed by hybrid hash sets.
+     */
+    public static PointsToSetFactory hybrid() {
+        return HYBRID;
+    }
+
+    /**
+     * Creates the factory of given kind.
+     *
+     * @param kind      "hybrid" (or null) for the sets backed by hybrid
+     *                  hash sets, or "bitmap" for the bitmap-based sets.
+     * @param csManager the manager of the objects in the points-to sets.
+     *                  The bitmap-based sets rely on it to index the objects.
+     */
+    public static PointsToSetFactory of(@Nullable String kind, CSManager csManager) {
+        if (kind == null || kind.equals("hybrid")) {
+            return HYBRID;
+        } else if (kind.equals("bitmap")) {
+            return new PointsToSetFactory(() -> new BitmapPointsToSet(csManager));
+        } else {
+            throw new ConfigException("Unknown points-to set: " + kind);
+        }
+    }
+
+    public PointsToSet make() {
+        return ptsFactory.get();
     }
 
     /**
      * Convenient method for making one-element points-to set.
      */
-    public static PointsToSet make(CSObj obj) {
+    public PointsToSet make(CSObj obj) {
         PointsToSet set = make();
         set.addObject(obj);
         return set;
@@ -84,6 +84,11 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "TwoType", "cs:2-type");
     }
 
+    @Test
+    public void testTwoObjectWithBitmap() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "pts:bitmap");
+    }
+
     @Test
     public void testStaticField() {
         Tests.testCSPTA(DIR, "StaticField");
@@ -93,4 +98,10 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testCycleWithCycleElimination() {
+        Tests.testCSPTAWithOption(DIR, "Cycle", "cycle-elimination:true",
+                "cs:1-call");
+    }
 }
@@ -0,0 +1,65 @@
+class Cycle {
+
+    public static void main(String[] args) {
+        copyCycle();
+        callCycle();
+        fieldCycle();
+    }
+
+    static void copyCycle() {
+        A a = new A();
+        A b = new A();
+        A c = new A();
+        for (int i = 0; i < 3; ++i) {
+            A t = a;
+            a = b;
+            b = c;
+            c = t;
+        }
+        a.f = b;
+        A d = a.f;
+    }
+
+    static void callCycle() {
+        A x = new A();
+        A y = new A();
+        for (int i = 0; i < 3; ++i) {
+            x = id(y);
+            y = pick(x, new A());
+        }
+        A z = rec(x, 3);
+    }
+
+    static A id(A a) {
+        return a;
+    }
+
+    static A pick(A a1, A a2) {
+        if (a1 != null) {
+            return a1;
+        }
+        return a2;
+    }
+
+    static A rec(A a, int n) {
+        if (n > 0) {
+            return rec(a, n - 1);
+        }
+        return a;
+    }
+
+    static void fieldCycle() {
+        A p = new A();
+        p.f = new A();
+        for (int i = 0; i < 3; ++i) {
+            A q = p.f;
+            q.f = p;
+            p = q;
+        }
+        A r = p.f;
+    }
+}
+
+class A {
+    A f;
+}
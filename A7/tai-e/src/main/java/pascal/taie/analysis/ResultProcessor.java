@@ -41,6 +41,8 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -52,7 +54,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static pascal.taie.util.collection.CollectionUtils.getOne;
 
@@ -168,7 +169,7 @@ public class ResultProcessor extends ProgramAnalysis {
             }
         };
         CallGraph<?, JMethod> cg = World.get().getResult(CallGraphBuilder.ID);
-        Stream<JMethod> methods;
+        List<JMethod> methods;
         if (cg.getNumberOfMethods() == 0) {
             // Before the call graph construction has been implemented,
             // there are no methods in the call graph. In this case,
@@ -179,41 +180,50 @@ public class ResultProcessor extends ProgramAnalysis {
                     .map(JClass::getDeclaredMethods)
                     .flatMap(Collection::stream)
                     .filter(m -> !m.isAbstract() && !m.isNative())
-                    .sorted(comp);
+                    .sorted(comp)
+                    .toList();
         } else {
             methods = cg.reachableMethods()
                     .filter(m -> m.getDeclaringClass().isApplication())
-                    .sorted(comp);
+                    .sorted(comp)
+                    .toList();
         }
         processResults(methods, analyses, (m, id) -> World.get().getResult(id));
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
-                .getClassHierarchy()
-                .applicationClasses()
-                .map(JClass::getDeclaredMethods)
-                .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+        List<JMethod> methods = ParallelMethodMapper.getAppMethods();
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
+    /**
+     * Processes the results of the methods in parallel. Each method is
+     * dumped to (or compared into) its own buffer, and the buffers are
+     * merged in the order of the methods, so that the output is the same
+     * as processing the methods one by one.
+     */
+    private void processResults(List<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
-                    }
-                })
-        );
+        switch (action) {
+            case "dump" -> ParallelMethodMapper.map(methods, method -> {
+                StringWriter buffer = new StringWriter();
+                PrintWriter writer = new PrintWriter(buffer);
+                analyses.forEach(id ->
+                        dumpResult(writer, method, id, resultGetter));
+                writer.flush();
+                return buffer.toString();
+            }).forEach(out::print);
+            case "compare" -> ParallelMethodMapper.map(methods, method -> {
+                Set<String> buffer = new LinkedHashSet<>();
+                analyses.forEach(id ->
+                        compareResult(buffer, method, id, resultGetter));
+                return buffer;
+            }).forEach(mismatches::addAll);
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    private static void dumpResult(PrintWriter out, JMethod method, String id,
+                                   BiFunction<JMethod, String, ?> resultGetter) {
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -247,7 +257,7 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
+    private void compareResult(Set<String> mismatches, JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
         Object result = resultGetter.apply(method, id);
@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DataflowResult} which stores the data-flow facts in arrays
+ * indexed by the nodes, instead of hash maps. This saves the map entries
+ * and the hashing on every access of the facts, and thus suits the nodes
+ * which are densely numbered, e.g., statements by {@code Stmt.getIndex()}.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final ToIntFunction<? super Node> indexer;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    /**
+     * @param indexer  maps each node to a non-negative index.
+     * @param capacity the expected number of indexes, the arrays are
+     *                 grown on demand if an index exceeds it.
+     */
+    public IndexedDataflowResult(ToIntFunction<? super Node> indexer,
+                                 int capacity) {
+        this.indexer = indexer;
+        this.inFacts = new Object[capacity];
+        this.outFacts = new Object[capacity];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return get(inFacts, indexer.applyAsInt(node));
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        int index = indexer.applyAsInt(node);
+        inFacts = ensureCapacity(inFacts, index);
+        inFacts[index] = fact;
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return get(outFacts, indexer.applyAsInt(node));
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        int index = indexer.applyAsInt(node);
+        outFacts = ensureCapacity(outFacts, index);
+        outFacts[index] = fact;
+    }
+
+    /**
+     * @return the index of given node in this result.
+     */
+    public int indexOf(Node node) {
+        return indexer.applyAsInt(node);
+    }
+
+    /**
+     * @return the IN fact of the node at given index, which allows
+     * the clients that have numbered the nodes to skip the indexer.
+     */
+    public Fact getInFactAt(int index) {
+        return get(inFacts, index);
+    }
+
+    /**
+     * @return the OUT fact of the node at given index.
+     */
+    public Fact getOutFactAt(int index) {
+        return get(outFacts, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact get(Object[] facts, int index) {
+        return index < facts.length ? (Fact) facts[index] : null;
+    }
+
+    private static Object[] ensureCapacity(Object[] facts, int index) {
+        return index < facts.length ? facts :
+                Arrays.copyOf(facts, Math.max(index + 1, facts.length * 2));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import java.util.BitSet;
+
+/**
+ * Work-list which polls nodes in first-in-first-out or
+ * last-in-first-out order.
+ * <p>
+ * As each node is present in the work-list at most once, the nodes
+ * are kept in a circular buffer whose capacity is the number of nodes.
+ */
+class DequeWorkList implements WorkList {
+
+    private final int[] elements;
+
+    /**
+     * Position of the first node in {@link #elements}.
+     */
+    private int head = 0;
+
+    private int size = 0;
+
+    private final BitSet pending;
+
+    /**
+     * Whether this work-list is last-in-first-out.
+     */
+    private final boolean lifo;
+
+    /**
+     * @param capacity upper bound (exclusive) of the numbers of the nodes.
+     */
+    DequeWorkList(int capacity, boolean lifo) {
+        this.elements = new int[capacity];
+        this.pending = new BitSet(capacity);
+        this.lifo = lifo;
+    }
+
+    @Override
+    public void add(int node) {
+        if (!pending.get(node)) {
+            pending.set(node);
+            elements[(head + size) % elements.length] = node;
+            ++size;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int poll() {
+        int node;
+        if (lifo) {
+            node = elements[(head + size - 1) % elements.length];
+        } else {
+            node = elements[head];
+            head = (head + 1) % elements.length;
+        }
+        --size;
+        pending.clear(node);
+        return node;
+    }
+}
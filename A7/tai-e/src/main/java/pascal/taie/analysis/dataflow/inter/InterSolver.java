@@ -23,15 +23,32 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
-import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
 
-import java.util.*;
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * The ICFG nodes are numbered before solving, and the solver visits
+ * the nodes, their in-edges and successors by the numbers, thus the
+ * facts are accessed without looking up the nodes.
+ * <p>
+ * Unlike A4, there is no block-level version of this solver: the
+ * alias-aware constant propagation reads the facts of arbitrary nodes
+ * and adds nodes to the work-list during solving, which requires the
+ * facts of every node to be kept.
  */
 class InterSolver<Method, Node, Fact> {
 
@@ -39,23 +56,113 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
-    private DataflowResult<Node, Fact> result;
+    private IndexedDataflowResult<Node, Fact> result;
 
+    /**
+     * Nodes added to the work-list by the analysis, which are moved
+     * to the numbered work-list by the solver.
+     */
     private Set<Node> workList;
 
+    /**
+     * ICFG nodes, indexed by their numbers in {@link #result}.
+     */
+    private Node[] nodes;
+
+    /**
+     * In-edges of the nodes, indexed by the numbers of the nodes.
+     */
+    private ICFGEdge<Node>[][] inEdges;
+
+    /**
+     * Numbers of the sources of {@link #inEdges}.
+     */
+    private int[][] preds;
+
+    /**
+     * Numbers of the successors of the nodes.
+     */
+    private int[][] succs;
+
+    /**
+     * Strategy of the work-list, see {@link WorkList#make}.
+     */
+    @Nullable
+    private final String strategy;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, @Nullable String strategy) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.strategy = strategy;
     }
 
     DataflowResult<Node, Fact> solve() {
-        result = new DataflowResult<>();
+        result = newResult();
+        indexNodes();
         initialize();
         doSolve();
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result which stores the facts in arrays
+     * indexed by a global numbering of the ICFG nodes. For the ICFGs of
+     * statements, each method is given a base number, and the number of
+     * a statement is the base of its method plus its index in the method.
+     */
+    private IndexedDataflowResult<Node, Fact> newResult() {
+        if (icfg.getEntryOf(getMainMethod(icfg)) instanceof Stmt) {
+            // the indexes of the statements in IR are [0, #stmts),
+            // and the entry and exit of CFG are #stmts and #stmts + 1
+            Map<Method, Integer> bases = Maps.newMap();
+            int size = 0;
+            for (Node node : icfg) {
+                Method method = icfg.getContainingMethodOf(node);
+                if (!bases.containsKey(method)) {
+                    bases.put(method, size);
+                    size += ((JMethod) method).getIR().getStmts().size() + 2;
+                }
+            }
+            return new IndexedDataflowResult<>(node ->
+                    bases.get(icfg.getContainingMethodOf(node)) +
+                            ((Stmt) node).getIndex(), size);
+        } else {
+            Map<Node, Integer> indexes = Maps.newMap();
+            for (Node node : icfg) {
+                indexes.put(node, indexes.size());
+            }
+            return new IndexedDataflowResult<>(indexes::get, indexes.size());
+        }
+    }
+
+    /**
+     * Numbers the nodes, their in-edges and successors by {@link #result}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void indexNodes() {
+        int size = 0;
+        for (Node node : icfg) {
+            size = Math.max(size, result.indexOf(node) + 1);
+        }
+        nodes = (Node[]) new Object[size];
+        inEdges = new ICFGEdge[size][];
+        preds = new int[size][];
+        succs = new int[size][];
+        for (Node node : icfg) {
+            int index = result.indexOf(node);
+            nodes[index] = node;
+            inEdges[index] = icfg.getInEdgesOf(node).toArray(new ICFGEdge[0]);
+            preds[index] = new int[inEdges[index].length];
+            for (int i = 0; i < inEdges[index].length; ++i) {
+                preds[index][i] = result.indexOf(inEdges[index][i].getSource());
+            }
+            succs[index] = icfg.getSuccsOf(node).stream()
+                    .mapToInt(result::indexOf)
+                    .toArray();
+        }
+    }
+
     private void initialize() {
         // TODO - finish me
         this.workList = new HashSet<>();
@@ -98,30 +205,36 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
         // TODO - finish me
 
-        Node entryPoint = this.icfg.getEntryOf(this.getMainMethod(this.icfg));
-
-        for (Node node : icfg) {
-            if (!node.equals(entryPoint)) {
-                workList.add(node);
+        int entryPoint = result.indexOf(
+                this.icfg.getEntryOf(this.getMainMethod(this.icfg)));
+        WorkList indexWorkList = WorkList.make(this.strategy, succs, entryPoint);
+        for (int i = 0; i < nodes.length; ++i) {
+            if (nodes[i] != null && i != entryPoint) {
+                indexWorkList.add(i);
             }
         }
 
-        while (!workList.isEmpty()) {
-            Node current = workList.iterator().next();
-            workList.remove(current);
-
-            Fact inFact = result.getInFact(current);
+        while (!indexWorkList.isEmpty()) {
+            int current = indexWorkList.poll();
 
-            icfg.getInEdgesOf(current).forEach(inEdge -> {
-                Node sourceNode = inEdge.getSource();
-                Fact transferredOutFact = this.analysis.transferEdge(inEdge, this.result.getOutFact(sourceNode));
+            Fact inFact = result.getInFactAt(current);
+            ICFGEdge<Node>[] edges = inEdges[current];
+            for (int i = 0; i < edges.length; ++i) {
+                Fact transferredOutFact = this.analysis.transferEdge(
+                        edges[i], this.result.getOutFactAt(preds[current][i]));
                 this.analysis.meetInto(transferredOutFact, inFact);
-            });
+            }
 
-            Fact outFact = result.getOutFact(current);
+            Fact outFact = result.getOutFactAt(current);
 
-            if (this.analysis.transferNode(current, inFact, outFact)) {
-                workList.addAll(icfg.getSuccsOf(current));
+            if (this.analysis.transferNode(nodes[current], inFact, outFact)) {
+                for (int succ : succs[current]) {
+                    indexWorkList.add(succ);
+                }
+            }
+            if (!workList.isEmpty()) {
+                workList.forEach(node -> indexWorkList.add(result.indexOf(node)));
+                workList.clear();
             }
         }
     }
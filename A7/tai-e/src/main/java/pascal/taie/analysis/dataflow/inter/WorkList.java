@@ -0,0 +1,79 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Work-list of the ICFG nodes to be processed by {@link InterSolver},
+ * where the nodes are represented by their numbers in the solver.
+ * The strategy of a work-list decides the order in which the nodes
+ * are polled, which does not affect the results, but may affect
+ * the number of transfers before reaching the fixed point.
+ * <p>
+ * Each node is present in a work-list at most once, i.e., adding a node
+ * that is already in the work-list has no effect.
+ */
+interface WorkList {
+
+    /**
+     * Adds a node to this work-list if it is not present.
+     */
+    void add(int node);
+
+    boolean isEmpty();
+
+    /**
+     * Removes and returns the next node to be processed.
+     * The client code should call {@link #isEmpty()} to check if this
+     * work-list is empty before calling this method.
+     */
+    int poll();
+
+    /**
+     * Creates a work-list of given strategy for the numbered ICFG nodes.
+     *
+     * @param strategy strategy of the work-list, which can be
+     *                 "fifo" (default), "lifo", or "rpo" (reverse postorder,
+     *                 see {@link PriorityWorkList#reversePostorder}).
+     *                 If strategy is null, the default one is used.
+     * @param succs    numbers of the successors of the nodes, indexed by
+     *                 the numbers of the nodes, and null for the numbers
+     *                 which are not given to any nodes.
+     * @param entry    number of the entry node of the ICFG
+     * @throws ConfigException if strategy is unknown
+     */
+    static WorkList make(@Nullable String strategy, int[][] succs, int entry) {
+        if (strategy == null) {
+            return new DequeWorkList(succs.length, false);
+        }
+        return switch (strategy) {
+            case "fifo" -> new DequeWorkList(succs.length, false);
+            case "lifo" -> new DequeWorkList(succs.length, true);
+            case "rpo" -> PriorityWorkList.reversePostorder(succs, entry);
+            default -> throw new ConfigException("Unknown work-list strategy: " + strategy);
+        };
+    }
+}
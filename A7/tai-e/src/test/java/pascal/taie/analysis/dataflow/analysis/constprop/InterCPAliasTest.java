@@ -31,8 +31,11 @@ public class InterCPAliasTest {
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
 
     void test(String inputClass) {
-        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:true;pta:cspta",
+        test(inputClass, "edge-refine:false;alias-aware:true;pta:cspta");
+    }
+
+    void test(String inputClass, String opts) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID, opts,
                 "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta"
                 //, "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                            // to output ICFGs for the test cases
@@ -54,6 +57,16 @@ public class InterCPAliasTest {
         test("ArrayLoops");
     }
 
+    @Test
+    public void testArrayLoopsWithLIFOWorkList() {
+        test("ArrayLoops", "edge-refine:false;alias-aware:true;pta:cspta;worklist:lifo");
+    }
+
+    @Test
+    public void testArrayLoopsWithRPOWorkList() {
+        test("ArrayLoops", "edge-refine:false;alias-aware:true;pta:cspta;worklist:rpo");
+    }
+
     @Test
     public void testInstanceField() {
         test("InstanceField");
@@ -0,0 +1,191 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentMapTest {
+
+    /**
+     * Key whose hash code is given explicitly, so that the tests
+     * can force hash collisions.
+     */
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key that && name.equals(that.name);
+        }
+    }
+
+    private static <K, V> Map<K, V> toMap(PersistentMap<K, V> map) {
+        Map<K, V> result = new HashMap<>();
+        map.forEach(result::put);
+        return result;
+    }
+
+    private static <K, V> void assertSame(Map<K, V> expected, PersistentMap<K, V> map) {
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected, toMap(map));
+        expected.forEach((k, v) -> Assert.assertEquals(v, map.get(k)));
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testHashCollisions() {
+        Key a = new Key("a", 42), b = new Key("b", 42), c = new Key("c", 42);
+        PersistentMap<Key, Integer> map = PersistentMap.<Key, Integer>empty()
+                .put(a, 1).put(b, 2).put(c, 3);
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(1, (int) map.get(a));
+        Assert.assertEquals(2, (int) map.get(b));
+        Assert.assertEquals(3, (int) map.get(c));
+        Assert.assertNull(map.get(new Key("d", 42)));
+        // updating a colliding key
+        PersistentMap<Key, Integer> map2 = map.put(b, 20);
+        Assert.assertEquals(3, map2.size());
+        Assert.assertEquals(20, (int) map2.get(b));
+        Assert.assertEquals(2, (int) map.get(b));
+        // putting the same mapping returns the receiver
+        Assert.assertSame(map, map.put(a, 1));
+    }
+
+    @Test
+    public void testRemoveCollapse() {
+        Key a = new Key("a", 7), b = new Key("b", 7);
+        Key c = new Key("c", 7 + (1 << 5)); // same bits at the first level
+        PersistentMap<Key, Integer> map = PersistentMap.<Key, Integer>empty()
+                .put(a, 1).put(b, 2).put(c, 3);
+        // removing from the collision node collapses it into a leaf
+        PersistentMap<Key, Integer> removed = map.remove(b);
+        Assert.assertEquals(2, removed.size());
+        Assert.assertNull(removed.get(b));
+        Assert.assertEquals(PersistentMap.<Key, Integer>empty().put(a, 1).put(c, 3),
+                removed);
+        // removing an absent key returns the receiver
+        Assert.assertSame(removed, removed.remove(b));
+        Assert.assertSame(map, map.remove(new Key("d", 7)));
+        // removing everything yields the empty map
+        PersistentMap<Key, Integer> empty = removed.remove(a).remove(c);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(PersistentMap.empty(), empty);
+    }
+
+    @Test
+    public void testMergeWithCollisions() {
+        Key a = new Key("a", 3), b = new Key("b", 3), c = new Key("c", 3);
+        Key d = new Key("d", 4);
+        PersistentMap<Key, Integer> m1 = PersistentMap.<Key, Integer>empty()
+                .put(a, 1).put(b, 2).put(d, 4);
+        PersistentMap<Key, Integer> m2 = PersistentMap.<Key, Integer>empty()
+                .put(b, 20).put(c, 3);
+        Map<Key, Integer> expected = new HashMap<>(toMap(m1));
+        expected.putAll(toMap(m2));
+        assertSame(expected, m1.putAll(m2));
+        // merging a map that brings no new mapping returns the receiver
+        PersistentMap<Key, Integer> merged = m1.putAll(m2);
+        Assert.assertSame(merged, merged.putAll(m2));
+        Assert.assertSame(m1, m1.putAll(PersistentMap.empty()));
+        Assert.assertSame(m2, PersistentMap.<Key, Integer>empty().putAll(m2));
+    }
+
+    @Test
+    public void testRandomOperationsAgainstHashMap() {
+        Random random = new Random(0);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; ++i) {
+            // few distinct hash codes to produce many collisions
+            int n = random.nextInt(300);
+            Key key = new Key("k" + n, random.nextBoolean() ? n : n % 17);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else if (op == 1) {
+                PersistentMap<Key, Integer> other = PersistentMap.empty();
+                Map<Key, Integer> otherExpected = new HashMap<>();
+                for (int j = 0; j < 5; ++j) {
+                    int m = random.nextInt(300);
+                    Key k = new Key("k" + m, m % 17);
+                    other = other.put(k, j);
+                    otherExpected.put(k, j);
+                }
+                expected.putAll(otherExpected);
+                map = map.putAll(other);
+            } else {
+                int value = random.nextInt(10);
+                expected.put(key, value);
+                map = map.put(key, value);
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        assertSame(expected, map);
+    }
+
+    @Test
+    public void testEqualityIndependentOfInsertionOrder() {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            keys.add(new Key("k" + i, i % 37));
+        }
+        PersistentMap<Key, Integer> m1 = PersistentMap.empty();
+        for (Key key : keys) {
+            m1 = m1.put(key, key.hash());
+        }
+        Collections.shuffle(keys, new Random(1));
+        PersistentMap<Key, Integer> m2 = PersistentMap.empty();
+        for (Key key : keys) {
+            m2 = m2.put(key, key.hash());
+        }
+        Assert.assertEquals(m1, m2);
+        Assert.assertEquals(m1.hashCode(), m2.hashCode());
+        // removing the same keys in different orders
+        PersistentMap<Key, Integer> r1 = m1, r2 = m2;
+        for (int i = 0; i < 250; ++i) {
+            r1 = r1.remove(keys.get(i));
+            r2 = r2.remove(keys.get(keys.size() - 1 - i));
+        }
+        Assert.assertNotEquals(r1, r2);
+        for (int i = 0; i < 250; ++i) {
+            r1 = r1.remove(keys.get(keys.size() - 1 - i));
+            r2 = r2.remove(keys.get(i));
+        }
+        Assert.assertEquals(r1, r2);
+        Assert.assertTrue(r1.isEmpty());
+        Assert.assertNotEquals(m1, m1.put(keys.get(0), -1));
+    }
+}
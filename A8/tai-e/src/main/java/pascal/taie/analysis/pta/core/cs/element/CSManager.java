@@ -24,6 +24,7 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
@@ -46,6 +47,18 @@ public interface CSManager {
      */
     CSObj getCSObj(Context heapContext, Obj obj);
 
+    /**
+     * @return the context-sensitive object with given index.
+     * @see CSObj#getIndex()
+     */
+    CSObj getObject(int index);
+
+    /**
+     * @return the factory of the points-to sets of the pointers
+     * managed by this manager.
+     */
+    PointsToSetFactory getPointsToSetFactory();
+
     /**
      * @return a context-sensitive call site for given context and call site.
      */
@@ -34,7 +34,6 @@ import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
 import pascal.taie.analysis.pta.pts.PointsToSet;
-import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
@@ -205,7 +204,7 @@ public class TaintAnalysiss {
             if (taintObject != null) {
                 // Context context = this.csManager.getCSObj(this.solver.getContextSelector().selectHeapContext(csMethod, taintObject);
                 CSObj csObj = this.csManager.getCSObj(this.emptyContext, taintObject);
-                this.solver.workListAddEntry(csDefVar, PointsToSetFactory.make(csObj));
+                this.solver.workListAddEntry(csDefVar, csObj);
             }
         }
 
@@ -219,7 +218,7 @@ public class TaintAnalysiss {
                     Optional<CSObj> taintObj = pointsToSet.getObjects().stream().filter(obj -> this.manager.isTaint(obj.getObject())).findAny();
                     if (taintObj.isPresent()) {
                         Obj taintObject = this.getArgToBaseTransferObject(this.manager.getSourceCall(taintObj.get().getObject()), calleeMethod, i);
-                        this.solver.workListAddEntry(recv, PointsToSetFactory.make(this.csManager.getCSObj(this.emptyContext, taintObject)));
+                        this.solver.workListAddEntry(recv, this.csManager.getCSObj(this.emptyContext, taintObject));
                         break;
                     }
                 }
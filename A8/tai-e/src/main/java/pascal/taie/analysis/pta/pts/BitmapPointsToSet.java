@@ -0,0 +1,296 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set represented by a compressed bitmap over the indexes
+ * of context-sensitive objects, i.e., {@link CSObj#getIndex()}.
+ * <p>
+ * The bitmap is divided into 64-bit words, and only the non-zero words
+ * are stored, together with their positions (in ascending order).
+ * Thus, the memory is proportional to the number of non-zero words
+ * instead of the number of all objects, and the set operations
+ * between two bitmaps are done word by word.
+ */
+class BitmapPointsToSet implements PointsToSet {
+
+    private static final int[] EMPTY_KEYS = {};
+
+    private static final long[] EMPTY_WORDS = {};
+
+    /**
+     * The manager which maps indexes back to the objects.
+     */
+    private final CSManager csManager;
+
+    /**
+     * Positions of the non-zero words, i.e., index / 64.
+     */
+    private int[] keys = EMPTY_KEYS;
+
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Number of non-zero words.
+     */
+    private int length;
+
+    /**
+     * Number of objects in this set.
+     */
+    private int size;
+
+    BitmapPointsToSet(CSManager csManager) {
+        this.csManager = csManager;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = obj.getIndex();
+        int key = index >>> 6;
+        long bit = 1L << index;
+        int i = Arrays.binarySearch(keys, 0, length, key);
+        if (i >= 0) {
+            if ((words[i] & bit) != 0) {
+                return false;
+            }
+            words[i] |= bit;
+        } else {
+            insert(-i - 1, key, bit);
+        }
+        ++size;
+        return true;
+    }
+
+    private void insert(int i, int key, long word) {
+        if (length == keys.length) {
+            int capacity = Math.max(4, length + (length >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, length - i);
+        System.arraycopy(words, i, words, i + 1, length - i);
+        keys[i] = key;
+        words[i] = word;
+        ++length;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (!(pts instanceof BitmapPointsToSet other)
+                || other.csManager != csManager) {
+            boolean changed = false;
+            for (CSObj obj : pts) {
+                changed |= addObject(obj);
+            }
+            return changed;
+        }
+        if (other.length == 0 || other == this) {
+            return false;
+        }
+        int oldSize = size;
+        int newLength = unionLength(other);
+        if (newLength == length) {
+            // all words of other are present in this set, merge in place
+            for (int i = 0, j = 0; j < other.length; ++j) {
+                while (keys[i] != other.keys[j]) {
+                    ++i;
+                }
+                long word = words[i];
+                long merged = word | other.words[j];
+                size += Long.bitCount(merged) - Long.bitCount(word);
+                words[i] = merged;
+            }
+        } else {
+            int[] newKeys = new int[newLength];
+            long[] newWords = new long[newLength];
+            int i = 0, j = 0, k = 0;
+            while (i < length || j < other.length) {
+                if (j == other.length ||
+                        (i < length && keys[i] < other.keys[j])) {
+                    newKeys[k] = keys[i];
+                    newWords[k++] = words[i++];
+                } else if (i == length || keys[i] > other.keys[j]) {
+                    newKeys[k] = other.keys[j];
+                    size += Long.bitCount(other.words[j]);
+                    newWords[k++] = other.words[j++];
+                } else {
+                    long word = words[i];
+                    long merged = word | other.words[j++];
+                    size += Long.bitCount(merged) - Long.bitCount(word);
+                    newKeys[k] = keys[i++];
+                    newWords[k++] = merged;
+                }
+            }
+            keys = newKeys;
+            words = newWords;
+            length = newLength;
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * @return the number of non-zero words of the union of this and other.
+     */
+    private int unionLength(BitmapPointsToSet other) {
+        int i = 0, j = 0, n = 0;
+        while (i < length && j < other.length) {
+            int k1 = keys[i], k2 = other.keys[j];
+            if (k1 <= k2) {
+                ++i;
+            }
+            if (k2 <= k1) {
+                ++j;
+            }
+            ++n;
+        }
+        return n + (length - i) + (other.length - j);
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        BitmapPointsToSet diff = new BitmapPointsToSet(csManager);
+        if (!(pts instanceof BitmapPointsToSet other)
+                || other.csManager != csManager) {
+            for (CSObj obj : pts) {
+                if (addObject(obj)) {
+                    diff.addObject(obj);
+                }
+            }
+            return diff;
+        }
+        if (other == this) {
+            return diff;
+        }
+        for (int i = 0, j = 0; j < other.length; ++j) {
+            int key = other.keys[j];
+            while (i < length && keys[i] < key) {
+                ++i;
+            }
+            long word = other.words[j];
+            if (i < length && keys[i] == key) {
+                word &= ~words[i];
+            }
+            if (word != 0) {
+                // keys of other are ascending, thus append to diff
+                diff.insert(diff.length, key, word);
+                diff.size += Long.bitCount(word);
+            }
+        }
+        addAll(diff);
+        return diff;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int index = obj.getIndex();
+        int i = Arrays.binarySearch(keys, 0, length, index >>> 6);
+        return i >= 0 && (words[i] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj &&
+                        BitmapPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return BitmapPointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        return new Iterator<>() {
+
+            private int i = 0;
+
+            /**
+             * Remaining bits of current word.
+             */
+            private long word = length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (++i >= length) {
+                        return false;
+                    }
+                    word = words[i];
+                }
+                return true;
+            }
+
+            @Override
+            public CSObj next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return csManager.getObject((keys[i] << 6) + bit);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
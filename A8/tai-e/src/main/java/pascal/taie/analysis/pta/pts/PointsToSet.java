@@ -49,6 +49,24 @@ public interface PointsToSet extends Iterable<CSObj> {
      */
     boolean addAll(PointsToSet pts);
 
+    /**
+     * Adds all objects in given pts to this set.
+     *
+     * @return a new points-to set which consists of the objects that
+     * are in given pts but not in this set before the call, i.e.,
+     * the difference set of pts and this set. By default, the difference
+     * set is backed by a hybrid hash set.
+     */
+    default PointsToSet addAllDiff(PointsToSet pts) {
+        PointsToSet diff = PointsToSetFactory.hybrid().make();
+        for (CSObj obj : pts) {
+            if (addObject(obj)) {
+                diff.addObject(obj);
+            }
+        }
+        return diff;
+    }
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
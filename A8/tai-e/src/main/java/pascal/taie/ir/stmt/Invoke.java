@@ -70,6 +70,7 @@ public class Invoke extends DefinitionStmt<Var, InvokeExp>
             Var base = ((InvokeInstanceExp) invokeExp).getBase();
             base.addInvoke(this);
         }
+        invokeExp.getArgs().forEach(arg -> arg.addArgInvoke(this));
         this.container = method;
     }
 
@@ -70,4 +70,16 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testTaintInListWithBitmap() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;pts:bitmap;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testTaintCycleWithCycleElimination() {
+        Tests.testCSPTAWithOption(DIR, "TaintCycle", "cycle-elimination:true",
+                "cs:1-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
 }
@@ -0,0 +1,33 @@
+class TaintCycle {
+
+    public static void main(String[] args) {
+        String a = SourceSink.source();
+        String b = new String();
+        String c = new String();
+        for (int i = 0; i < 3; ++i) {
+            String t = a;
+            a = b;
+            b = c;
+            c = t;
+        }
+        SourceSink.sink(a);
+        String x = new String();
+        for (int i = 0; i < 3; ++i) {
+            x = id(b);
+            b = rec(x, 2);
+        }
+        SourceSink.sink(x);
+        SourceSink.sink(c.concat(x));
+    }
+
+    static String id(String s) {
+        return s;
+    }
+
+    static String rec(String s, int n) {
+        if (n > 0) {
+            return rec(s, n - 1);
+        }
+        return s;
+    }
+}